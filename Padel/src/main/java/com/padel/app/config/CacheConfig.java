@@ -0,0 +1,43 @@
+package com.padel.app.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Catálogo público de canchas: lista completa y cada cancha por id
+    public static final String COURTS = "courts";
+    public static final String COURT = "court";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${padel.cache.courts.spec}") String spec) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(COURTS, COURT);
+        caffeine.setCacheSpecification(spec);
+        // Las invalidaciones dentro de una transacción se aplican recién al confirmarla
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+
+    // Caché de segundo nivel de Hibernate (Court, User y la caché de consultas), regiones en hibernate-cache.conf.
+    // Un CacheManager propio por contexto: el del CachingProvider global se compartiría entre contextos de la JVM
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager hibernateCacheManager(@Value("${padel.cache.hibernate.config}") String config) {
+        return new CaffeineCachingProvider().getCacheManager(URI.create(config), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager(javax.cache.CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -0,0 +1,43 @@
+package com.padel.app.config;
+
+import com.padel.app.security.JwtService;
+import com.padel.app.service.BookingIntervalIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gauges de las estructuras en memoria propias y métricas de la caché de segundo nivel de Hibernate.
+ * Las cachés de Spring (courts, court), el pool de conexiones (hikaricp.*) y los hilos de Tomcat
+ * (tomcat.threads.*) los registra Spring Boot.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder inMemoryStructureMetrics(JwtService jwtService, BookingIntervalIndex bookingIntervalIndex) {
+        return registry -> {
+            Gauge.builder("padel.jwt.claims-cache.size", jwtService, JwtService::claimsCacheSize)
+                    .description("Tokens verificados en la caché de claims")
+                    .register(registry);
+            Gauge.builder("padel.bookings.index.size", bookingIntervalIndex, BookingIntervalIndex::size)
+                    .description("Reservas en el índice en memoria")
+                    .register(registry);
+        };
+    }
+
+    // cache.gets/puts/evictions por región (tag cache.manager=hibernate). El EntityManagerFactory asegura
+    // que Hibernate ya creó las regiones antes de recorrerlas. Mismas claves de tags que las cachés de
+    // Spring (Boot agrega name): Prometheus descarta un cache.* con otro juego de claves
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(javax.cache.CacheManager hibernateCacheManager,
+                                               EntityManagerFactory entityManagerFactory) {
+        return registry -> hibernateCacheManager.getCacheNames().forEach(name ->
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(name),
+                        Tags.of("cache.manager", "hibernate", "name", name)));
+    }
+}
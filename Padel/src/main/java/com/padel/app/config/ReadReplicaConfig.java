@@ -0,0 +1,82 @@
+package com.padel.app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplica de lectura opcional (padel.datasource.replica.*). Reemplaza al DataSource de Spring Boot
+ * por dos pools, primario (spring.datasource.*) y réplica, detrás de {@link ReplicaRoutingDataSource}.
+ * Flyway, los jobs y toda transacción de escritura siguen usando el primario; los métodos de
+ * repositorio heredados son readOnly, así que una lectura suelta va a la réplica salvo que se
+ * marque con {@link ReplicaRoutingDataSource#readFromPrimary}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "padel.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties primaryProperties, Environment environment,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${padel.datasource.replica.read-your-writes-ms:5000}") long readYourWritesMs,
+                                 @Value("${padel.datasource.replica.marker-secret:${jwt.secret}}") String markerSecret) {
+        Binder binder = Binder.get(environment);
+        DataSourceProperties replicaProperties = binder.bind("padel.datasource.replica", DataSourceProperties.class)
+                .orElseThrow(() -> new IllegalStateException("Falta padel.datasource.replica.url"));
+        if (replicaProperties.getDriverClassName() == null) {
+            replicaProperties.setDriverClassName(primaryProperties.determineDriverClassName());
+        }
+
+        HikariDataSource primary = pool(primaryProperties, binder, "spring.datasource.hikari", "primary", meterRegistry);
+        HikariDataSource replica = pool(replicaProperties, binder, "padel.datasource.replica.hikari", "replica", meterRegistry);
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, Duration.ofMillis(readYourWritesMs),
+                markerSecret);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Con open-in-view, Hibernate retiene la primera conexión física hasta el final del request y la
+    // elección primario/réplica quedaría fijada por la primera consulta. Soltarla al terminar cada
+    // transacción hace que cada una vuelva a pasar por el ruteo.
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private HikariDataSource pool(DataSourceProperties properties, Binder binder, String hikariPrefix,
+                                         String name, MeterRegistry meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(hikariPrefix, Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pools.add(pool);
+        // Los pools no son beans: las métricas hikaricp.* (tag pool=primary|replica) se registran acá
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,101 @@
+package com.padel.app.config;
+
+import jakarta.servlet.http.Cookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Marca de "escribió hace poco" que viaja con el cliente, para que la ventana read-your-writes
+ * valga en cualquier instancia detrás del balanceador y no solo en la que recibió la escritura.
+ * Es una cookie firmada (HMAC-SHA256) con el id de usuario y el vencimiento: no hay estado
+ * compartido entre instancias y el cliente no puede fabricarla ni pasarla a otro usuario.
+ * Fuera de un request HTTP (jobs, tests de servicio) no hace nada.
+ */
+public class ReadYourWritesMarker {
+
+    public static final String COOKIE = "padel_rw";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Duration window;
+    private final SecretKeySpec key;
+
+    public ReadYourWritesMarker(Duration window, String secret) {
+        this.window = window;
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    /** Agrega la cookie a la respuesta en curso, si todavía se pueden escribir headers. */
+    public void issue(Long userId) {
+        ServletRequestAttributes attributes = currentRequest();
+        if (attributes == null || attributes.getResponse() == null || attributes.getResponse().isCommitted()) {
+            return;
+        }
+        String payload = userId + "." + (System.currentTimeMillis() + window.toMillis());
+        ResponseCookie cookie = ResponseCookie.from(COOKIE, payload + "." + sign(payload))
+                .httpOnly(true)
+                .secure(attributes.getRequest().isSecure())
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(window.toSeconds() + 1)
+                .build();
+        attributes.getResponse().addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    /** true si el request en curso trae una marca válida y vigente para este usuario. */
+    public boolean isPresent(Long userId) {
+        ServletRequestAttributes attributes = currentRequest();
+        if (attributes == null) {
+            return false;
+        }
+        Cookie cookie = WebUtils.getCookie(attributes.getRequest(), COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        String[] parts = cookie.getValue().split("\\.");
+        if (parts.length != 3 || !parts[0].equals(String.valueOf(userId))) {
+            return false;
+        }
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        // Tope en la ventana actual: una marca emitida con una ventana más larga no la extiende
+        if (expiresAt <= now || expiresAt > now + window.toMillis()) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII),
+                parts[2].getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo firmar la marca read-your-writes", e);
+        }
+    }
+
+    private static ServletRequestAttributes currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet : null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.padel.app.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.padel.app.security.AuthenticatedUser;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Envía las transacciones @Transactional(readOnly = true) a la réplica y todo lo demás al primario.
+ * Un usuario que acaba de escribir sigue leyendo del primario durante la ventana read-your-writes,
+ * así ve su reserva aunque la réplica todavía no la haya recibido. La ventana es por id de usuario
+ * autenticado; las escrituras anónimas (el registro) no abren ninguna. La instancia que recibió la
+ * escritura la recuerda en memoria, y el cliente lleva además una {@link ReadYourWritesMarker} para
+ * que las demás instancias también lo manden al primario. Debe usarse detrás de un
+ * LazyConnectionDataSourceProxy: la conexión real se pide recién con la primera sentencia, cuando
+ * la transacción ya está marcada como de solo lectura. Las lecturas que no toleran retraso (lo que
+ * llena cachés, las credenciales del login) se marcan con {@link #readFromPrimary(Supplier)}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final AuthenticationTrustResolver TRUST_RESOLVER = new AuthenticationTrustResolverImpl();
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final Cache<Long, Boolean> recentWriters;
+    private final ReadYourWritesMarker marker;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWrites,
+                                    String markerSecret) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWrites)
+                .maximumSize(100_000)
+                .build();
+        this.marker = new ReadYourWritesMarker(readYourWrites, markerSecret);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Ejecuta la lectura contra el primario aunque el repositorio abra una transacción readOnly.
+     * Solo decide sobre conexiones que se pidan adentro: una transacción de solo lectura que ya
+     * tomó una conexión de la réplica la sigue usando. Sin réplica configurada no tiene efecto.
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        if (FORCE_PRIMARY.get() != null) {
+            return read.get();
+        }
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                markWriter(userId);
+            }
+            return Target.PRIMARY;
+        }
+        if (FORCE_PRIMARY.get() != null) {
+            return Target.PRIMARY;
+        }
+        if (userId != null && (recentWriters.getIfPresent(userId) != null || marker.isPresent(userId))) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    // La ventana se abre al empezar a escribir y se renueva al confirmar, que es cuando empieza el retraso de la réplica
+    private void markWriter(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(userId, Boolean.TRUE);
+                    marker.issue(userId);
+                }
+            });
+        }
+    }
+
+    // Los anónimos comparten el nombre "anonymousUser": con una ventana por nombre, un registro
+    // mandaría al primario todo el tráfico público durante la ventana
+    private static Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || TRUST_RESOLVER.isAnonymous(auth)) {
+            return null;
+        }
+        return auth.getPrincipal() instanceof AuthenticatedUser user ? user.getIdUser() : null;
+    }
+}
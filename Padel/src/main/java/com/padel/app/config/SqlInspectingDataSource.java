@@ -0,0 +1,110 @@
+package com.padel.app.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Envuelve el pool de conexiones para medir cada sentencia ejecutada y pasarla a
+ * {@link SqlStatementTracker}. Reemplaza a spring.jpa.show-sql: no imprime nada salvo las
+ * sentencias lentas, y ve también las consultas que no pasan por Hibernate (Flyway, JDBC nativo).
+ */
+public class SqlInspectingDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<SqlStatementTracker> trackerProvider;
+    private volatile SqlStatementTracker tracker;
+
+    public SqlInspectingDataSource(DataSource target, ObjectProvider<SqlStatementTracker> trackerProvider) {
+        super(target);
+        this.trackerProvider = trackerProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return inspect(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return inspect(super.getConnection(username, password));
+    }
+
+    // El tracker depende del MeterRegistry; se resuelve con la primera conexión y no al crear el pool
+    private SqlStatementTracker tracker() {
+        SqlStatementTracker resolved = tracker;
+        if (resolved == null) {
+            resolved = trackerProvider.getObject();
+            tracker = resolved;
+        }
+        return resolved;
+    }
+
+    private Connection inspect(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return switch (method.getName()) {
+                        case "prepareStatement" -> statement(result, PreparedStatement.class, (String) args[0]);
+                        case "prepareCall" -> statement(result, CallableStatement.class, (String) args[0]);
+                        case "createStatement" -> statement(result, Statement.class, null);
+                        default -> result;
+                    };
+                });
+    }
+
+    private Object statement(Object statement, Class<? extends Statement> type, String preparedSql) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                new StatementHandler(statement, preparedSql));
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Object target;
+        private final String preparedSql;
+        private String batchedSql;
+
+        private StatementHandler(Object target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (preparedSql == null && name.equals("addBatch") && args != null && args.length > 0) {
+                batchedSql = (String) args[0];
+            }
+            if (!name.startsWith("execute")) {
+                return SqlInspectingDataSource.invoke(target, method, args);
+            }
+
+            // Statement.execute*(sql) trae el SQL como argumento; PreparedStatement lo recibió al prepararse
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s
+                    : preparedSql != null ? preparedSql : batchedSql;
+            long start = System.nanoTime();
+            try {
+                return SqlInspectingDataSource.invoke(target, method, args);
+            } finally {
+                tracker().record(sql, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.padel.app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+/**
+ * Inspección de sentencias SQL: el DataSource se envuelve para medir cada sentencia y un filtro
+ * delimita el request al que pertenecen. Los agregados se consultan en /actuator/sqlstats.
+ */
+@Configuration
+@ConditionalOnProperty(name = "padel.sql.inspection.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInspectionConfig {
+
+    @Bean
+    public SqlStatementTracker sqlStatementTracker(MeterRegistry meterRegistry,
+                                                   @Value("${padel.sql.slow-threshold-ms:200}") long slowThresholdMs,
+                                                   @Value("${padel.sql.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        return new SqlStatementTracker(meterRegistry, slowThresholdMs, nPlusOneThreshold);
+    }
+
+    // static: los BeanPostProcessor se crean antes que el resto de los beans de la configuración
+    @Bean
+    public static BeanPostProcessor sqlInspectingDataSourcePostProcessor(ObjectProvider<SqlStatementTracker> tracker) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlInspectingDataSource)) {
+                    return new SqlInspectingDataSource(dataSource, tracker);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Primero en la cadena, para contar también las consultas de los filtros de seguridad
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> sqlStatsFilter(SqlStatementTracker tracker) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                tracker.begin(request);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    tracker.end();
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public SqlStatsEndpoint sqlStatsEndpoint(SqlStatementTracker tracker) {
+        return new SqlStatsEndpoint(tracker);
+    }
+}
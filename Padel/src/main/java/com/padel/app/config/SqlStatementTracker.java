@@ -0,0 +1,187 @@
+package com.padel.app.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Estadísticas de SQL por endpoint. Cada sentencia que pasa por {@link SqlInspectingDataSource}
+ * se suma al request en curso; al terminar el request se acumula bajo "MÉTODO /patrón" y se
+ * detectan las sentencias con la misma forma repetidas muchas veces (N+1). Las sentencias que
+ * superan el umbral se loguean sin valores: solo placeholders y literales reemplazados por ?.
+ */
+public class SqlStatementTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementTracker.class);
+    private static final String UNMATCHED = "UNMATCHED";
+    private static final int MAX_ENDPOINTS = 500;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long slowThresholdNanos;
+    private final int nPlusOneThreshold;
+    private final ThreadLocal<RequestStats> current = new ThreadLocal<>();
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    // Hibernate repite siempre los mismos textos SQL: la normalización se calcula una vez por texto
+    private final Cache<String, String> shapes = Caffeine.newBuilder().maximumSize(2_000).build();
+    private final Counter slowStatements;
+    private final Counter nPlusOneRequests;
+
+    public SqlStatementTracker(MeterRegistry meterRegistry, long slowThresholdMs, int nPlusOneThreshold) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.slowStatements = Counter.builder("padel.sql.slow")
+                .description("Sentencias SQL que superaron padel.sql.slow-threshold-ms")
+                .register(meterRegistry);
+        this.nPlusOneRequests = Counter.builder("padel.sql.n-plus-one")
+                .description("Requests que repitieron la misma sentencia más de padel.sql.n-plus-one-threshold veces")
+                .register(meterRegistry);
+    }
+
+    public void begin(HttpServletRequest request) {
+        current.set(new RequestStats(request));
+    }
+
+    public void end() {
+        RequestStats stats = current.get();
+        current.remove();
+        if (stats == null) {
+            return;
+        }
+
+        String endpoint = endpointOf(stats.request);
+        // Los patrones de ruta son finitos; el tope evita crecer sin límite si aparece algo inesperado
+        String key = endpoints.containsKey(endpoint) || endpoints.size() < MAX_ENDPOINTS
+                ? endpoint
+                : stats.request.getMethod() + " " + UNMATCHED;
+        EndpointStats aggregate = endpoints.computeIfAbsent(key, k -> new EndpointStats());
+        aggregate.requests.increment();
+        aggregate.statements.add(stats.statements);
+        aggregate.maxStatements.accumulate(stats.statements);
+        aggregate.jdbcNanos.add(stats.jdbcNanos);
+        aggregate.slowStatements.add(stats.slowStatements);
+
+        stats.executionsByShape.entrySet().stream()
+                .filter(e -> e.getValue() >= nPlusOneThreshold)
+                .max(Map.Entry.comparingByValue())
+                .ifPresent(e -> {
+                    aggregate.nPlusOneRequests.increment();
+                    aggregate.lastNPlusOneSql = e.getKey();
+                    nPlusOneRequests.increment();
+                    log.warn("Posible N+1 en {}: {} ejecuciones de {}", endpoint, e.getValue(), e.getKey());
+                });
+    }
+
+    void record(String sql, long elapsedNanos) {
+        RequestStats stats = current.get();
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (stats != null) {
+            stats.statements++;
+            stats.jdbcNanos += elapsedNanos;
+            if (sql != null) {
+                stats.executionsByShape.merge(shapeOf(sql), 1, Integer::sum);
+            }
+            if (slow) {
+                stats.slowStatements++;
+            }
+        }
+        if (slow) {
+            slowStatements.increment();
+            log.warn("SQL lenta ({} ms) en {}: {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    stats != null ? endpointOf(stats.request) : Thread.currentThread().getName(),
+                    sql != null ? shapeOf(sql) : "(batch)");
+        }
+    }
+
+    public List<EndpointSummary> summary() {
+        return endpoints.entrySet().stream()
+                .map(e -> e.getValue().summarize(e.getKey()))
+                .sorted(Comparator.comparingDouble(EndpointSummary::jdbcTimeMs).reversed())
+                .toList();
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    // Forma de la sentencia: sin valores literales, listas IN colapsadas y espacios normalizados
+    String shapeOf(String sql) {
+        return shapes.get(sql, SqlStatementTracker::normalize);
+    }
+
+    static String normalize(String sql) {
+        String redacted = STRING_LITERAL.matcher(sql).replaceAll("?");
+        redacted = NUMBER_LITERAL.matcher(redacted).replaceAll("?");
+        redacted = IN_LIST.matcher(redacted).replaceAll("(?)");
+        return WHITESPACE.matcher(redacted).replaceAll(" ").trim();
+    }
+
+    private static String endpointOf(HttpServletRequest request) {
+        // El patrón lo deja el DispatcherServlet; antes (filtros de seguridad) o sin handler no existe
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : UNMATCHED);
+    }
+
+    private static final class RequestStats {
+        private final HttpServletRequest request;
+        private final Map<String, Integer> executionsByShape = new HashMap<>();
+        private int statements;
+        private long jdbcNanos;
+        private int slowStatements;
+
+        private RequestStats(HttpServletRequest request) {
+            this.request = request;
+        }
+    }
+
+    private static final class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder jdbcNanos = new LongAdder();
+        private final LongAdder slowStatements = new LongAdder();
+        private final LongAdder nPlusOneRequests = new LongAdder();
+        private volatile String lastNPlusOneSql;
+
+        private EndpointSummary summarize(String endpoint) {
+            long count = requests.sum();
+            long total = statements.sum();
+            double jdbcMs = jdbcNanos.sum() / 1_000_000.0;
+            return new EndpointSummary(endpoint, count, total,
+                    count == 0 ? 0 : (double) total / count, maxStatements.get(),
+                    jdbcMs, count == 0 ? 0 : jdbcMs / count,
+                    slowStatements.sum(), nPlusOneRequests.sum(), lastNPlusOneSql);
+        }
+    }
+
+    public record EndpointSummary(
+            String endpoint,
+            long requests,
+            long statements,
+            double avgStatements,
+            long maxStatements,
+            double jdbcTimeMs,
+            double avgJdbcTimeMs,
+            long slowStatements,
+            long nPlusOneRequests,
+            String lastNPlusOneSql
+    ) {}
+}
@@ -0,0 +1,31 @@
+package com.padel.app.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * /actuator/sqlstats: sentencias y tiempo JDBC por endpoint, ordenados por tiempo total.
+ * DELETE reinicia los contadores (por ejemplo, antes de una prueba de carga).
+ */
+@Endpoint(id = "sqlstats")
+public class SqlStatsEndpoint {
+
+    private final SqlStatementTracker tracker;
+
+    public SqlStatsEndpoint(SqlStatementTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @ReadOperation
+    public List<SqlStatementTracker.EndpointSummary> sqlStats() {
+        return tracker.summary();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        tracker.reset();
+    }
+}
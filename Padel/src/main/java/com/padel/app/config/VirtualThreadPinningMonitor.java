@@ -0,0 +1,119 @@
+package com.padel.app.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Detecta hilos virtuales que quedan clavados a su carrier (bloqueos dentro de synchronized o
+ * en código nativo, típicamente en drivers JDBC) escuchando el evento JFR jdk.VirtualThreadPinned.
+ * Cuenta cada evento en padel.threads.pinned y loguea una vez cada lugar distinto donde ocurre.
+ * Solo se activa con spring.threads.virtual.enabled=true sobre Java 21+.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "padel.threads.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final Counter pinned;
+    private final Timer pinnedTime;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${padel.threads.pinning-monitor.threshold-ms:20}") long thresholdMs) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.pinned = Counter.builder("padel.threads.pinned")
+                .description("Veces que un hilo virtual bloqueó a su carrier más que el umbral")
+                .register(meterRegistry);
+        this.pinnedTime = Timer.builder("padel.threads.pinned.duration")
+                .description("Tiempo que los hilos virtuales estuvieron clavados a su carrier")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Monitor de pinning de hilos virtuales activo (umbral {} ms)", threshold.toMillis());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        record(event.getDuration(), event.getThread() == null ? "?" : event.getThread().getJavaName(),
+                frames(event.getStackTrace()));
+    }
+
+    /**
+     * Registra un evento de pinning. Devuelve true si es la primera vez que aparece ese lugar
+     * (y por lo tanto se logueó).
+     */
+    boolean record(Duration duration, String thread, List<String> frames) {
+        pinned.increment();
+        pinnedTime.record(duration);
+
+        // Un aviso por lugar: el mismo synchronized bajo carga generaría miles de líneas iguales
+        String site = site(frames);
+        if (!reportedSites.add(site)) {
+            return false;
+        }
+        log.warn("Hilo virtual clavado a su carrier durante {} ms en {}:\n\t{}",
+                duration.toMillis(), thread, String.join("\n\t", frames));
+        return true;
+    }
+
+    // Las primeras frames son siempre del JDK (VirtualThread.parkOnCarrierThread, Thread.sleep...): el
+    // lugar es la primera frame fuera de él, la del driver o de la aplicación que tomó el monitor
+    private static String site(List<String> frames) {
+        return frames.stream()
+                .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun."))
+                .findFirst()
+                .orElse(frames.isEmpty() ? "desconocido" : frames.get(0));
+    }
+
+    private static List<String> frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return List.of();
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.toList());
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
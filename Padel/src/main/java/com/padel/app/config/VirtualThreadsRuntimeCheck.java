@@ -0,0 +1,27 @@
+package com.padel.app.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Corta el arranque si spring.threads.virtual.enabled=true corre sobre un JRE anterior a 21.
+ * Spring Boot ignora la propiedad en silencio en ese caso (Threading.VIRTUAL queda inactivo) y la
+ * aplicación seguiría con hilos de plataforma, sin monitor de pinning, creyendo que usa virtuales.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsRuntimeCheck {
+
+    static final int MIN_FEATURE_VERSION = 21;
+
+    public VirtualThreadsRuntimeCheck() {
+        check(Runtime.version().feature());
+    }
+
+    static void check(int featureVersion) {
+        if (featureVersion < MIN_FEATURE_VERSION) {
+            throw new IllegalStateException("spring.threads.virtual.enabled=true requiere Java "
+                    + MIN_FEATURE_VERSION + " o superior, pero corre sobre Java " + featureVersion);
+        }
+    }
+}
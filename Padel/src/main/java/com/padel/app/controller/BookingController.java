@@ -1,17 +1,27 @@
 package com.padel.app.controller;
 
 import com.padel.app.dto.booking.BookingDTO;
+import com.padel.app.dto.booking.BookingPageDTO;
 import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.dto.booking.BookingSeriesDTO;
+import com.padel.app.dto.booking.BookingSeriesResultDTO;
+import com.padel.app.service.BookingExportService;
+import com.padel.app.service.BookingSeriesService;
 import com.padel.app.service.BookingService;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -19,16 +29,52 @@ import java.util.Map;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingExportService bookingExportService;
+    private final BookingSeriesService bookingSeriesService;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingExportService bookingExportService,
+                             BookingSeriesService bookingSeriesService) {
         this.bookingService = bookingService;
+        this.bookingExportService = bookingExportService;
+        this.bookingSeriesService = bookingSeriesService;
     }
 
+    // Listado paginado por cursor: nextCursor se reenvía como ?cursor= para pedir la página siguiente
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN','OWNER')")
-    public ResponseEntity<List<BookingResponseDTO>> getAllBookings(Authentication auth) {
-        List<BookingResponseDTO> bookings = bookingService.getAllBookings(auth);
-        return ResponseEntity.ok(bookings);
+    public ResponseEntity<BookingPageDTO> getAllBookings(
+            Authentication auth,
+            @RequestParam(required = false) Long courtId,
+            @RequestParam(required = false) Long ownerId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(bookingService.getBookings(auth, courtId, ownerId, userId, status, from, to, cursor, size));
+    }
+
+    // Exportación completa en NDJSON o CSV, escrita en streaming (memoria constante)
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN','OWNER')")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            Authentication auth,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long courtId,
+            @RequestParam(required = false) Long ownerId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        BookingExportService.Format exportFormat = BookingExportService.Format.from(format);
+        StreamingResponseBody body = bookingExportService.export(auth, exportFormat, courtId, ownerId, status, from, to);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"bookings." + exportFormat.extension() + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -42,14 +88,22 @@ public class BookingController {
     // Obtener las reservas de un Usuario
     @GetMapping("/my-bookings")
     @PreAuthorize("hasAnyRole('ADMIN','OWNER','USER')")
-    public ResponseEntity<List<BookingResponseDTO>> getMyBookings(
-            Authentication auth,
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<BookingPageDTO> getMyBookings(
+            @RequestParam(required = false) Long courtId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String status
+            WebRequest request
     ) {
-        Page<BookingResponseDTO> res = bookingService.getBookingsByAuthenticatedUser(page, size, status);
-        return ResponseEntity.ok(res.getContent());
+        // GET condicional: los clientes que sondean reciben 304 mientras sus reservas no cambien
+        if (request.checkNotModified(bookingService.getMyBookingsEtag(courtId, status, from, to, cursor, size))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(bookingService.getBookingsByAuthenticatedUser(courtId, status, from, to, cursor, size));
     }
 
     @PostMapping
@@ -59,6 +113,15 @@ public class BookingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    // 201 si se creó al menos una ocurrencia (las ocupadas vienen en conflicts); 409 si ninguna estaba libre
+    @PostMapping("/series")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<BookingSeriesResultDTO> createBookingSeries(@Valid @RequestBody BookingSeriesDTO dto) {
+        BookingSeriesResultDTO result = bookingSeriesService.createSeries(dto);
+        HttpStatus status = result.created().isEmpty() ? HttpStatus.CONFLICT : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(result);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Void> deleteBooking(@PathVariable Long id) {
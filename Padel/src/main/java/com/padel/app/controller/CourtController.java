@@ -1,44 +1,66 @@
 package com.padel.app.controller;
 
+import com.padel.app.dto.common.ResourceVersion;
+import com.padel.app.dto.court.AvailabilityGridDTO;
 import com.padel.app.dto.court.CourtDTO;
 import com.padel.app.dto.court.CourtResponseDTO;
+import com.padel.app.dto.court.NearbyCourtDTO;
+import com.padel.app.service.AvailabilityGridService;
 import com.padel.app.service.CourtService;
+import com.padel.app.service.NearbyCourtService;
 import jakarta.annotation.security.PermitAll;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/courts")
 public class CourtController {
 
     private final CourtService courtService;
+    private final AvailabilityGridService availabilityGridService;
+    private final NearbyCourtService nearbyCourtService;
 
-    public CourtController(CourtService courtService) {
+    public CourtController(CourtService courtService, AvailabilityGridService availabilityGridService,
+                           NearbyCourtService nearbyCourtService) {
         this.courtService = courtService;
+        this.availabilityGridService = availabilityGridService;
+        this.nearbyCourtService = nearbyCourtService;
     }
 
     // === Ver todas las canchas (público) ===
     @GetMapping
     @PermitAll
-    public ResponseEntity<List<CourtResponseDTO>> getAllCourts() {
-        return ResponseEntity.ok(courtService.getAllCourts());
+    public ResponseEntity<List<CourtResponseDTO>> getAllCourts(WebRequest request) {
+        // GET condicional: si el cliente ya tiene esta versión se responde 304 sin armar el listado
+        if (request.checkNotModified(courtService.getCatalogVersion().etag("courts"))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(courtService.getAllCourts());
     }
 
     // === Ver cancha por id (público) ===
     @GetMapping("/{id}")
     @PermitAll
-    public ResponseEntity<CourtResponseDTO> getCourtById(@PathVariable Long id) {
-        return ResponseEntity.ok(courtService.getCourtById(id));
+    public ResponseEntity<CourtResponseDTO> getCourtById(@PathVariable Long id, WebRequest request) {
+        ResourceVersion version = courtService.getCourtVersion(id);
+        if (version.count() > 0 && request.checkNotModified(version.etag("court-" + id), version.lastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(courtService.getCourtById(id));
     }
 
     // === Ver disponibilidad de cancha (público) ===
@@ -52,6 +74,31 @@ public class CourtController {
         return ResponseEntity.ok(available);
     }
 
+    // === Grilla libre/ocupado de un día por cancha (público) ===
+    @GetMapping("/availability/grid")
+    @PermitAll
+    public ResponseEntity<AvailabilityGridDTO> getAvailabilityGrid(
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(value = "courtIds", required = false) Set<Long> courtIds,
+            @RequestParam(value = "slotMinutes", defaultValue = "30") int slotMinutes
+    ) {
+        return ResponseEntity.ok(availabilityGridService.getGrid(date, courtIds, slotMinutes));
+    }
+
+    // === Canchas cercanas, opcionalmente libres en una ventana (público) ===
+    @GetMapping("/nearby")
+    @PermitAll
+    public ResponseEntity<List<NearbyCourtDTO>> getNearbyCourts(
+            @RequestParam("lat") double lat,
+            @RequestParam("lng") double lng,
+            @RequestParam(value = "radiusKm", defaultValue = "5") double radiusKm,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "startTime", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(value = "endTime", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime
+    ) {
+        return ResponseEntity.ok(nearbyCourtService.findNearby(lat, lng, radiusKm, limit, startTime, endTime));
+    }
+
     // === Crear cancha (solo OWNER o ADMIN) ===
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN','OWNER')")
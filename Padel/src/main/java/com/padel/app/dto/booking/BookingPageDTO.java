@@ -0,0 +1,8 @@
+package com.padel.app.dto.booking;
+
+import java.util.List;
+
+public record BookingPageDTO(
+        List<BookingResponseDTO> items,
+        String nextCursor
+) {}
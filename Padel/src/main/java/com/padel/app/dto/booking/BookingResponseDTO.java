@@ -1,5 +1,7 @@
 package com.padel.app.dto.booking;
 
+import com.padel.app.model.Booking;
+
 import java.time.LocalDateTime;
 
 public record BookingResponseDTO(
@@ -11,4 +13,10 @@ public record BookingResponseDTO(
         LocalDateTime startTime,
         LocalDateTime endTime,
         String status
-) {}
+) {
+    // Usado por las proyecciones JPQL (SELECT new ...), que entregan el enum tal cual
+    public BookingResponseDTO(Long idBooking, Long idCourt, String nameCourt, Long idUser, String nameUser,
+                              LocalDateTime startTime, LocalDateTime endTime, Booking.Status status) {
+        this(idBooking, idCourt, nameCourt, idUser, nameUser, startTime, endTime, status.name());
+    }
+}
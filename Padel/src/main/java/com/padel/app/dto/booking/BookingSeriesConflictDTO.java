@@ -0,0 +1,9 @@
+package com.padel.app.dto.booking;
+
+import java.time.LocalDateTime;
+
+public record BookingSeriesConflictDTO(
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        Long conflictingBookingId
+) {}
@@ -0,0 +1,34 @@
+package com.padel.app.dto.booking;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Serie de reservas al estilo RRULE: primera ocurrencia + FREQ/INTERVAL + COUNT o UNTIL
+public record BookingSeriesDTO(
+        @NotNull(message = "El ID de la cancha es obligatorio")
+        Long idCourt,
+
+        @NotNull(message = "La fecha de inicio es obligatoria")
+        @Future(message = "La hora de inicio debe ser en el futuro")
+        LocalDateTime startTime,
+
+        @NotNull(message = "La fecha de fin es obligatoria")
+        @Future(message = "La hora de finalización debe ser en el futuro")
+        LocalDateTime endTime,
+
+        @NotNull(message = "La frecuencia es obligatoria (DAILY o WEEKLY)")
+        Frequency frequency,
+
+        // Cada cuántos días/semanas se repite (por defecto 1)
+        Integer interval,
+
+        // Cantidad de ocurrencias, o bien la fecha de la última (inclusive)
+        Integer count,
+        LocalDate until
+) {
+    public enum Frequency {
+        DAILY, WEEKLY
+    }
+}
@@ -0,0 +1,8 @@
+package com.padel.app.dto.booking;
+
+import java.util.List;
+
+public record BookingSeriesResultDTO(
+        List<BookingResponseDTO> created,
+        List<BookingSeriesConflictDTO> conflicts
+) {}
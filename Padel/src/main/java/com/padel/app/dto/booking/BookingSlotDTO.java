@@ -0,0 +1,10 @@
+package com.padel.app.dto.booking;
+
+import java.time.LocalDateTime;
+
+public record BookingSlotDTO(
+        Long idBooking,
+        Long idCourt,
+        LocalDateTime startTime,
+        LocalDateTime endTime
+) {}
@@ -0,0 +1,23 @@
+package com.padel.app.dto.common;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Versión de un recurso o colección para GET condicional: cantidad de filas y última modificación
+ * (incluye las entidades relacionadas que aparecen en la respuesta, p. ej. el dueño de la cancha).
+ */
+public record ResourceVersion(long count, LocalDateTime lastModified) {
+
+    // Weak ETag: identifica el contenido lógico, no los bytes exactos del JSON
+    public String etag(String prefix) {
+        long micros = lastModified == null ? 0
+                : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() * 1000
+                  + lastModified.getNano() / 1000 % 1000;
+        return "W/\"" + prefix + "-" + count + "-" + Long.toHexString(micros) + "\"";
+    }
+
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,11 @@
+package com.padel.app.dto.court;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record AvailabilityGridDTO(
+        LocalDate date,
+        int slotMinutes,
+        int slots,
+        List<CourtSlotsDTO> courts
+) {}
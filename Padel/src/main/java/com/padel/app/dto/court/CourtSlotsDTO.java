@@ -0,0 +1,8 @@
+package com.padel.app.dto.court;
+
+// busy: un carácter por franja, '1' ocupada / '0' libre, desde las 00:00 del día
+public record CourtSlotsDTO(
+        Long idCourt,
+        String nameCourt,
+        String busy
+) {}
@@ -0,0 +1,6 @@
+package com.padel.app.dto.court;
+
+public record NearbyCourtDTO(
+        CourtResponseDTO court,
+        double distanceKm
+) {}
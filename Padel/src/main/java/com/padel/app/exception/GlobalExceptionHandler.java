@@ -1,6 +1,10 @@
 package com.padel.app.exception;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -16,6 +20,8 @@ import java.util.Map;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String,Object>> handleValidation(MethodArgumentNotValidException ex) {
         Map<String,String> errors = new HashMap<>();
@@ -34,6 +40,17 @@ public class GlobalExceptionHandler {
         return build(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
+    // Lock de cancha o de fila ocupado: se puede reintentar, no es un 400
+    @ExceptionHandler({ResourceBusyException.class, PessimisticLockingFailureException.class,
+            PessimisticLockException.class, LockTimeoutException.class})
+    public ResponseEntity<Map<String,Object>> handleBusy(RuntimeException ex) {
+        String msg = ex instanceof ResourceBusyException ? ex.getMessage()
+                : "El recurso está siendo modificado por otro usuario, intenta nuevamente.";
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(body(HttpStatus.SERVICE_UNAVAILABLE, msg));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String,Object>> handleRuntime(RuntimeException ex) {
         return build(HttpStatus.BAD_REQUEST, ex.getMessage());
@@ -50,10 +67,14 @@ public class GlobalExceptionHandler {
     }
 
     private ResponseEntity<Map<String,Object>> build(HttpStatus status, String msg) {
+        return ResponseEntity.status(status).body(body(status, msg));
+    }
+
+    private Map<String,Object> body(HttpStatus status, String msg) {
         Map<String,Object> body = new HashMap<>();
         body.put("timestamp", Instant.now());
         body.put("status", status.value());
         body.put("message", msg);
-        return ResponseEntity.status(status).body(body);
+        return body;
     }
 }
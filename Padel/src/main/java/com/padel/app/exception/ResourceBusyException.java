@@ -0,0 +1,12 @@
+package com.padel.app.exception;
+
+/**
+ * El recurso está tomado por otra operación (lock de cancha, lock de fila en la base) y no se liberó
+ * a tiempo. No es un error del cliente: puede reintentar la misma petición en unos instantes.
+ */
+public class ResourceBusyException extends RuntimeException {
+
+    public ResourceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,46 @@
+package com.padel.app.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Reserva movida a bookings_archive; solo se escribe con INSERT ... SELECT desde bookings
+@Entity
+@Immutable
+@Table(name = "bookings_archive")
+@Getter
+public class ArchivedBooking {
+
+    @Id
+    @Column(name = "id_booking")
+    private Long idBooking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_court", nullable = false)
+    private Court court;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by", nullable = false)
+    private User createdBy;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(length = 20, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Booking.Status status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -1,5 +1,6 @@
 package com.padel.app.model;
 
+import com.padel.app.repository.BookingIdGenerator;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
@@ -13,8 +14,9 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class Booking {
 
+    // Ids por bloques de 50 (V8): a diferencia de IDENTITY permite agrupar los INSERT en batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BookingIdGenerator.Generated
     private Long idBooking;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -126,5 +128,8 @@ public class Booking {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
-}
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
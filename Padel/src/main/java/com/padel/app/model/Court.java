@@ -1,6 +1,8 @@
 package com.padel.app.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -8,6 +10,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "courts")
+// Caché de segundo nivel: la entrada guarda el id del owner, que se resuelve desde la región de User
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "court-entities")
 public class Court {
 
     @Id
@@ -0,0 +1,75 @@
+package com.padel.app.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "notification_outbox")
+@Getter
+@Setter
+public class Notification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_notification")
+    private Long idNotification;
+
+    @Column(length = 30, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    @Column(nullable = false, length = 100)
+    private String recipient;
+
+    @Column(nullable = false, length = 200)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(length = 20, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public enum Type {
+        BOOKING_CONFIRMED, BOOKING_CANCELLED, BOOKING_SERIES_CONFIRMED
+    }
+
+    public enum Status {
+        PENDING, SENT, FAILED
+    }
+
+    public Notification() {
+    }
+
+    public Notification(Type type, String recipient, String subject, String body) {
+        this.type = type;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+        if (this.nextAttemptAt == null) this.nextAttemptAt = this.createdAt;
+    }
+}
@@ -0,0 +1,62 @@
+package com.padel.app.repository;
+
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.model.ArchivedBooking;
+import com.padel.app.model.Booking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    // Copia las reservas indicadas al archivo en una sola sentencia; el DELETE en bookings va en la misma transacción.
+    // Sin declarar la tabla, Hibernate vaciaría toda la caché de segundo nivel en cada SQL nativo de escritura
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "bookings_archive"))
+    @Query(value = """
+           INSERT INTO bookings_archive
+               (id_booking, id_court, created_by, start_time, end_time, status, created_at, updated_at, archived_at)
+           SELECT id_booking, id_court, created_by, start_time, end_time, status, created_at, updated_at, :now
+           FROM bookings
+           WHERE id_booking IN (:ids)
+           """, nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("SELECT MAX(a.startTime) FROM ArchivedBooking a")
+    LocalDateTime findMaxStartTime();
+
+    // Misma consulta y mismo orden que BookingRepository.findResponsesPage, sobre el archivo
+    @Query("""
+           SELECT new com.padel.app.dto.booking.BookingResponseDTO(
+               a.idBooking, c.idCourt, c.nameCourt, u.idUser, u.nameUser, a.startTime, a.endTime, a.status)
+           FROM ArchivedBooking a JOIN Court c ON c = a.court JOIN User u ON u = a.createdBy
+           WHERE (:courtId IS NULL OR a.court.idCourt = :courtId)
+           AND (:ownerId IS NULL OR c.owner.idUser = :ownerId)
+           AND (:userId IS NULL OR a.createdBy.idUser = :userId)
+           AND (:status IS NULL OR a.status = :status)
+           AND (:from IS NULL OR a.startTime >= :from)
+           AND (:to IS NULL OR a.startTime < :to)
+           AND (:afterStart IS NULL
+                OR (a.startTime <= :afterStart
+                    AND (a.startTime < :afterStart OR a.idBooking < :afterId)))
+           ORDER BY a.startTime DESC, a.idBooking DESC
+           """)
+    List<BookingResponseDTO> findResponsesPage(@Param("courtId") Long courtId,
+                                               @Param("ownerId") Long ownerId,
+                                               @Param("userId") Long userId,
+                                               @Param("status") Booking.Status status,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("afterStart") LocalDateTime afterStart,
+                                               @Param("afterId") Long afterId,
+                                               Limit limit);
+}
@@ -0,0 +1,98 @@
+package com.padel.app.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reparte ids de reservas por bloques de {@link #BLOCK_SIZE} reservados en id_generators (V8).
+ * Cada bloque se reserva en una transacción propia sobre un pool de una sola conexión, separado del
+ * pool principal: quien pide un bloque nuevo ya tiene tomada una conexión para su reserva, y si la
+ * segunda saliera del mismo pool, con todas sus conexiones en manos de altas esperando un id, el
+ * pool quedaría trabado hasta el timeout de Hikari (es lo que pasa con el TableGenerator de Hibernate).
+ * Usa el mismo esquema que el optimizador pooled: el valor guardado es el tope del próximo bloque.
+ */
+@Component
+public class BookingIdAllocator implements DisposableBean {
+
+    public static final int BLOCK_SIZE = 50;
+
+    private static final String SEQUENCE = "bookings";
+
+    private final HikariDataSource pool;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long last = -1;
+
+    public BookingIdAllocator(DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry) {
+        // Siempre contra el primario (spring.datasource.*), aunque haya réplica de lectura
+        this.pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("booking-ids");
+        pool.setMaximumPoolSize(1);
+        pool.setMinimumIdle(0);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+
+    public long next() {
+        lock.lock();
+        try {
+            if (next > last) {
+                reserveBlock();
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reserveBlock() {
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                long top = lockedTop(connection);
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE id_generators SET next_val = ? WHERE name = ?")) {
+                    update.setLong(1, top + BLOCK_SIZE);
+                    update.setString(2, SEQUENCE);
+                    update.executeUpdate();
+                }
+                connection.commit();
+                next = top - BLOCK_SIZE + 1;
+                last = top;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("No se pudo reservar un bloque de ids de reservas", e);
+        }
+    }
+
+    private static long lockedTop(Connection connection) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT next_val FROM id_generators WHERE name = ? FOR UPDATE")) {
+            select.setString(1, SEQUENCE);
+            try (ResultSet row = select.executeQuery()) {
+                if (!row.next()) {
+                    throw new IllegalStateException("Falta la fila '" + SEQUENCE + "' en id_generators");
+                }
+                return row.getLong(1);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.close();
+    }
+}
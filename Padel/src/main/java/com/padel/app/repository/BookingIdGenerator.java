@@ -0,0 +1,35 @@
+package com.padel.app.repository;
+
+import org.hibernate.annotations.IdGeneratorType;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generador de Hibernate para el id de {@link com.padel.app.model.Booking}. Hibernate lo crea a
+ * través del contenedor de Spring, que le inyecta el {@link BookingIdAllocator}. Como el id se
+ * conoce antes del INSERT, los INSERT de una serie siguen saliendo en un solo batch JDBC.
+ */
+public class BookingIdGenerator implements IdentifierGenerator {
+
+    private final BookingIdAllocator allocator;
+
+    public BookingIdGenerator(BookingIdAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return allocator.next();
+    }
+
+    @IdGeneratorType(BookingIdGenerator.class)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.FIELD, ElementType.METHOD})
+    public @interface Generated {
+    }
+}
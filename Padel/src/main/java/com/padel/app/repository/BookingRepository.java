@@ -1,15 +1,24 @@
 package com.padel.app.repository;
 
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.dto.common.ResourceVersion;
+import com.padel.app.dto.booking.BookingSlotDTO;
 import com.padel.app.model.Booking;
-import com.padel.app.model.User;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
@@ -26,13 +35,98 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                       @Param("startTime") java.time.LocalDateTime startTime,
                                       @Param("endTime") java.time.LocalDateTime endTime);
 
-    //Buscar las reservas de un Usuario
-    List<Booking> findByCreatedBy(User user);
+    // Igual que existsByCourtAndTimeRange, sin contar la reserva que se está moviendo
+    @Query("""
+           SELECT CASE WHEN COUNT(b) > 0 THEN TRUE ELSE FALSE END
+           FROM Booking b
+           WHERE b.court.id = :courtId
+           AND b.status = 'BOOKED'
+           AND b.startTime < :endTime AND b.endTime > :startTime
+           AND b.idBooking <> :excludedId
+           """)
+    boolean existsOtherByCourtAndTimeRange(@Param("courtId") Long courtId,
+                                           @Param("startTime") LocalDateTime startTime,
+                                           @Param("endTime") LocalDateTime endTime,
+                                           @Param("excludedId") Long excludedId);
+
+    // Reserva con cancha y usuario en la misma consulta (permisos + DTO sin cargas perezosas)
+    @EntityGraph(attributePaths = {"court", "createdBy"})
+    Optional<Booking> findWithCourtAndUserByIdBooking(Long idBooking);
+
+    // Lote de reservas ya terminadas que siguen BOOKED; SKIP LOCKED reparte los lotes entre instancias
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+           SELECT b.idBooking FROM Booking b
+           WHERE b.status = 'BOOKED'
+           AND b.endTime <= :now
+           ORDER BY b.endTime
+           """)
+    List<Long> findEndedBookedIdsForUpdate(@Param("now") LocalDateTime now, Limit limit);
 
-    //Paginación
-    Page<Booking> findByCreatedBy(User user, Pageable pageable);
+    @Query("SELECT COUNT(b) FROM Booking b WHERE b.status = 'BOOKED' AND b.endTime <= :now")
+    long countEndedBooked(@Param("now") LocalDateTime now);
 
-    Page<Booking> findByCreatedByAndStatus(User user, Booking.Status status, Pageable pageable);
+    // UPDATE masivo: no pasa por los listeners de la entidad, por eso updatedAt se asigna explícitamente
+    @Modifying
+    @Query("""
+           UPDATE Booking b
+           SET b.status = 'COMPLETED', b.updatedAt = :now
+           WHERE b.idBooking IN :ids
+           AND b.status = 'BOOKED'
+           """)
+    int markCompleted(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Lote de reservas frías para mover a bookings_archive (las BOOKED las completa antes BookingCompletionJob)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+           SELECT b.idBooking FROM Booking b
+           WHERE b.status IN ('COMPLETED', 'CANCELLED')
+           AND b.endTime < :cutoff
+           ORDER BY b.endTime
+           """)
+    List<Long> findArchivableIdsForUpdate(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    // Versión de las reservas de un usuario para GET condicional (incluye la cancha, cuyo nombre se muestra)
+    @Query("""
+           SELECT new com.padel.app.dto.common.ResourceVersion(
+               COUNT(b), MAX(GREATEST(b.updatedAt, c.updatedAt, u.updatedAt)))
+           FROM Booking b JOIN b.court c JOIN b.createdBy u
+           WHERE u.idUser = :userId
+           """)
+    ResourceVersion findVersionByUser(@Param("userId") Long userId);
+
+    // Paginación por keyset sobre (start_time, id_booking) descendente: la página N cuesta lo mismo
+    // que la primera porque se continúa desde el último elemento visto en lugar de saltear filas.
+    // Los filtros nulos no restringen. Cancha y usuario se filtran por las columnas de bookings (de ahí
+    // los joins explícitos con ON: con JOIN b.createdBy Hibernate filtraría sobre users.id_user) y el
+    // keyset se escribe como rango start_time <= :afterStart, así la base recorre idx_booking_user_start
+    // o idx_booking_court_status_time en lugar de todas las reservas del usuario o de la cancha.
+    @Query("""
+           SELECT new com.padel.app.dto.booking.BookingResponseDTO(
+               b.idBooking, c.idCourt, c.nameCourt, u.idUser, u.nameUser, b.startTime, b.endTime, b.status)
+           FROM Booking b JOIN Court c ON c = b.court JOIN User u ON u = b.createdBy
+           WHERE (:courtId IS NULL OR b.court.idCourt = :courtId)
+           AND (:ownerId IS NULL OR c.owner.idUser = :ownerId)
+           AND (:userId IS NULL OR b.createdBy.idUser = :userId)
+           AND (:status IS NULL OR b.status = :status)
+           AND (:from IS NULL OR b.startTime >= :from)
+           AND (:to IS NULL OR b.startTime < :to)
+           AND (:afterStart IS NULL
+                OR (b.startTime <= :afterStart
+                    AND (b.startTime < :afterStart OR b.idBooking < :afterId)))
+           ORDER BY b.startTime DESC, b.idBooking DESC
+           """)
+    List<BookingResponseDTO> findResponsesPage(@Param("courtId") Long courtId,
+                                               @Param("ownerId") Long ownerId,
+                                               @Param("userId") Long userId,
+                                               @Param("status") Booking.Status status,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("afterStart") LocalDateTime afterStart,
+                                               @Param("afterId") Long afterId,
+                                               Limit limit);
 
     // Query para detectar solapamientos en una cancha
     @Query("""
@@ -48,4 +142,36 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime
     );
+
+    // Reservas vigentes (BOOKED) que terminan después de :from, para precargar el índice en memoria
+    @Query("""
+           SELECT new com.padel.app.dto.booking.BookingSlotDTO(b.idBooking, b.court.idCourt, b.startTime, b.endTime)
+           FROM Booking b
+           WHERE b.status = 'BOOKED'
+           AND b.endTime > :from
+           """)
+    List<BookingSlotDTO> findBookedSlotsEndingAfter(@Param("from") LocalDateTime from);
+
+    // Reservas vigentes que se solapan con [from, to), para armar la grilla de disponibilidad de un día
+    @Query("""
+           SELECT new com.padel.app.dto.booking.BookingSlotDTO(b.idBooking, b.court.idCourt, b.startTime, b.endTime)
+           FROM Booking b
+           WHERE b.status = 'BOOKED'
+           AND b.startTime < :to
+           AND b.endTime > :from
+           """)
+    List<BookingSlotDTO> findBookedSlotsBetween(@Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    @Query("""
+           SELECT new com.padel.app.dto.booking.BookingSlotDTO(b.idBooking, b.court.idCourt, b.startTime, b.endTime)
+           FROM Booking b
+           WHERE b.court.idCourt IN :courtIds
+           AND b.status = 'BOOKED'
+           AND b.startTime < :to
+           AND b.endTime > :from
+           """)
+    List<BookingSlotDTO> findBookedSlotsBetween(@Param("courtIds") Collection<Long> courtIds,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
 }
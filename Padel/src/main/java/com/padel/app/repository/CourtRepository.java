@@ -1,10 +1,70 @@
 package com.padel.app.repository;
 
+import com.padel.app.dto.common.ResourceVersion;
+import com.padel.app.dto.court.CourtResponseDTO;
 import com.padel.app.model.Court;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface CourtRepository extends JpaRepository<Court,Long> {
     List<Court> findByOwner_IdUser(Long idUser);
+
+    // Bloquea la fila de la cancha (SELECT ... FOR UPDATE) para serializar reservas entre instancias
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Court c WHERE c.idCourt = :id")
+    Optional<Court> findByIdForUpdate(@Param("id") Long id);
+
+    // Catálogo completo proyectado a DTO (owner incluido en el mismo JOIN)
+    @Query("""
+           SELECT new com.padel.app.dto.court.CourtResponseDTO(
+               c.idCourt, c.nameCourt, c.direction, c.lat, c.lng, c.price, o.idUser, o.nameUser)
+           FROM Court c JOIN c.owner o
+           ORDER BY c.idCourt
+           """)
+    List<CourtResponseDTO> findAllResponses();
+
+    @Query("""
+           SELECT new com.padel.app.dto.court.CourtResponseDTO(
+               c.idCourt, c.nameCourt, c.direction, c.lat, c.lng, c.price, o.idUser, o.nameUser)
+           FROM Court c JOIN c.owner o
+           WHERE c.idCourt = :id
+           """)
+    Optional<CourtResponseDTO> findResponseById(@Param("id") Long id);
+
+    // Versiones para GET condicional (ETag / Last-Modified); el nombre del dueño también forma parte de la respuesta
+    @Query("""
+           SELECT new com.padel.app.dto.common.ResourceVersion(COUNT(c), MAX(GREATEST(c.updatedAt, o.updatedAt)))
+           FROM Court c JOIN c.owner o
+           """)
+    ResourceVersion findCatalogVersion();
+
+    @Query("""
+           SELECT new com.padel.app.dto.common.ResourceVersion(COUNT(c), MAX(GREATEST(c.updatedAt, o.updatedAt)))
+           FROM Court c JOIN c.owner o
+           WHERE c.idCourt = :id
+           """)
+    ResourceVersion findVersionById(@Param("id") Long id);
+
+    // Canchas sin reservas solapadas en el rango: una sola consulta (NOT EXISTS) proyectada a DTO
+    @Query("""
+           SELECT new com.padel.app.dto.court.CourtResponseDTO(
+               c.idCourt, c.nameCourt, c.direction, c.lat, c.lng, c.price, o.idUser, o.nameUser)
+           FROM Court c JOIN c.owner o
+           WHERE NOT EXISTS (
+               SELECT 1 FROM Booking b
+               WHERE b.court = c
+               AND b.status = 'BOOKED'
+               AND b.startTime < :endTime AND b.endTime > :startTime
+           )
+           ORDER BY c.idCourt
+           """)
+    List<CourtResponseDTO> findAvailableCourts(@Param("startTime") LocalDateTime startTime,
+                                               @Param("endTime") LocalDateTime endTime);
 }
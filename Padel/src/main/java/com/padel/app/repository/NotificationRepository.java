@@ -0,0 +1,31 @@
+package com.padel.app.repository;
+
+import com.padel.app.model.Notification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    // Pendientes cuyo turno ya llegó; SKIP LOCKED (lock timeout -2) permite que varias instancias
+    // tomen lotes distintos sin esperarse
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+           SELECT n FROM Notification n
+           WHERE n.status = 'PENDING'
+           AND n.nextAttemptAt <= :now
+           ORDER BY n.nextAttemptAt
+           """)
+    List<Notification> findDueForUpdate(@Param("now") LocalDateTime now, Limit limit);
+
+    long countByStatus(Notification.Status status);
+}
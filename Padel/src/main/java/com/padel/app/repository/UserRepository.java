@@ -1,10 +1,15 @@
 package com.padel.app.repository;
 
 import com.padel.app.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Caché de consultas: guarda el id y la entidad sale de la región de User; cualquier escritura en users la invalida
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
 }
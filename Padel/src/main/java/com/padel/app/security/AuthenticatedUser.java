@@ -0,0 +1,72 @@
+package com.padel.app.security;
+
+import com.padel.app.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Usuario autenticado de la petición: id, email y rol resueltos una única vez por la capa de
+ * seguridad (desde el JWT o desde la base), para que los servicios no vuelvan a consultarlo.
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long idUser;
+    private final String email;
+    private final User.Role role;
+    private final String password;
+
+    public AuthenticatedUser(Long idUser, String email, User.Role role) {
+        this(idUser, email, role, "");
+    }
+
+    public AuthenticatedUser(Long idUser, String email, User.Role role, String password) {
+        this.idUser = idUser;
+        this.email = email;
+        this.role = role;
+        this.password = password;
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getIdUser(), user.getEmail(), user.getRole(), user.getPassword());
+    }
+
+    public Long getIdUser() {
+        return idUser;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public User.Role getRole() {
+        return role;
+    }
+
+    public boolean hasRole(User.Role expected) {
+        return role == expected;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[idUser=" + idUser + ", email=" + email + ", role=" + role + "]";
+    }
+}
@@ -0,0 +1,47 @@
+package com.padel.app.security;
+
+import com.padel.app.repository.UserRepository;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Acceso al {@link AuthenticatedUser} de la petición en curso. Normalmente ya viene resuelto por
+ * {@link JwtAuthenticationFilter}; si la autenticación no lo trae, se busca una vez y se guarda en
+ * el contexto de seguridad para el resto de la petición.
+ */
+@Component
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+
+    public CurrentUser(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public AuthenticatedUser get() {
+        return from(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    public AuthenticatedUser from(Authentication auth) {
+        if (auth == null) {
+            throw new IllegalStateException("No hay un usuario autenticado.");
+        }
+        if (auth.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal;
+        }
+
+        AuthenticatedUser principal = userRepository.findByEmail(auth.getName())
+                .map(AuthenticatedUser::from)
+                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+
+        if (SecurityContextHolder.getContext().getAuthentication() == auth) {
+            UsernamePasswordAuthenticationToken resolved =
+                    new UsernamePasswordAuthenticationToken(principal, null, auth.getAuthorities());
+            resolved.setDetails(auth.getDetails());
+            SecurityContextHolder.getContext().setAuthentication(resolved);
+        }
+        return principal;
+    }
+}
@@ -1,13 +1,20 @@
 package com.padel.app.security;
 
+import com.padel.app.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,10 +26,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final boolean stateless;
+    private final Counter invalidTokens;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService,
+                                   TokenRevocationCache tokenRevocationCache, MeterRegistry meterRegistry,
+                                   @Value("${jwt.stateless:true}") boolean stateless) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationCache = tokenRevocationCache;
+        this.stateless = stateless;
+        this.invalidTokens = Counter.builder("padel.auth.failures")
+                .description("Autenticaciones rechazadas (login o token inválido)")
+                .tag("type", "token")
+                .register(meterRegistry);
     }
 
     @Override
@@ -32,7 +50,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
+        final Claims claims;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -40,12 +58,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        try {
+            // Una sola verificación por petición (y ninguna si el token ya está en caché)
+            claims = jwtService.extractClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidTokens.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final String username = claims.getSubject();
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails;
+            try {
+                userDetails = resolveUser(claims);
+            } catch (UsernameNotFoundException e) {
+                filterChain.doFilter(request, response);
+                return;
+            }
 
-            if (jwtService.isTokenValid(jwt, userDetails.getUsername())) {
+            if (jwtService.isTokenValid(claims, userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
@@ -57,4 +89,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Modo stateless: id y rol salen del token ya verificado, salvo que el usuario tenga tokens revocados
+    private UserDetails resolveUser(Claims claims) {
+        String role = claims.get("role", String.class);
+        Long idUser = claims.get("uid", Long.class);
+        if (stateless && role != null && idUser != null
+                && !tokenRevocationCache.isRevoked(claims.getSubject(), claims.getIssuedAt())) {
+            return new AuthenticatedUser(idUser, claims.getSubject(), User.Role.valueOf(role));
+        }
+        return userDetailsService.loadUserByUsername(claims.getSubject());
+    }
 }
@@ -1,13 +1,22 @@
 package com.padel.app.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.padel.app.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
@@ -18,45 +27,104 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    private Key signingKey;
+    private JwtParser parser;
+
+    // Claims ya verificados, por hash del token; cada entrada expira junto con el token
+    private Cache<String, Claims> verifiedClaims;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(User user) {
         return Jwts.builder()
                 .setSubject(user.getEmail())
+                .claim("uid", user.getIdUser())
                 .claim("role", user.getRole().name())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // Verifica firma y expiración una sola vez por token; las siguientes llamadas salen de la caché
+    // (jwt.claims-cache.max-size=0 desactiva la caché)
+    public Claims extractClaims(String token) {
+        if (claimsCacheMaxSize <= 0) {
+            return parser.parseClaimsJws(token).getBody();
+        }
+
+        String key = hash(token);
+        Claims cached = verifiedClaims.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verifiedClaims.put(key, claims);
+        }
+        return claims;
+    }
+
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return extractClaims(token).getSubject();
     }
 
     public boolean isTokenValid(String token, String username) {
         try {
-            final String extractedUsername = extractUsername(token);
-            return (extractedUsername.equals(username) && !isTokenExpired(token));
+            return isTokenValid(extractClaims(token), username);
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration()
-                .before(new Date());
+    public boolean isTokenValid(Claims claims, String username) {
+        return claims.getSubject().equals(username) && !isTokenExpired(claims);
+    }
+
+    public long claimsCacheSize() {
+        return verifiedClaims.estimatedSize();
+    }
+
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration() == null || claims.getExpiration().before(new Date());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.padel.app.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
@@ -36,10 +37,13 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // la petición original ya fue autorizada (exportaciones en streaming)
                         .requestMatchers("/api/auth/**").permitAll()  // registro y login
-                        .requestMatchers("/api/courts/availability", "/api/courts").permitAll() // todos pueden ver
+                        .requestMatchers("/api/courts/availability", "/api/courts/availability/grid", "/api/courts/nearby", "/api/courts").permitAll() // todos pueden ver
                         .requestMatchers("/api/bookings/**").hasAnyRole("USER", "OWNER", "ADMIN") // solo logueados
                         .requestMatchers("/api/users/**").hasAnyRole("OWNER", "ADMIN") // solo owners y admin
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN") // métricas y cachés
                         .anyRequest().authenticated()               // resto requiere login
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
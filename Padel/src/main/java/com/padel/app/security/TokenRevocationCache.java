@@ -0,0 +1,41 @@
+package com.padel.app.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Usuarios cuyos tokens emitidos hasta cierto instante ya no reflejan su rol (cambio de rol,
+ * de email o baja). Esos tokens no se autentican con sus claims sino contra la base de datos.
+ * Cada entrada vive lo mismo que un token, después ya no queda ninguno afectado.
+ */
+@Component
+public class TokenRevocationCache {
+
+    // email -> segundo epoch hasta el cual (inclusive) los tokens quedan revocados
+    private final Cache<String, Long> revokedUntil;
+
+    public TokenRevocationCache(@Value("${jwt.expiration}") long jwtExpirationMs) {
+        this.revokedUntil = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtExpirationMs))
+                .build();
+    }
+
+    public void revoke(String email) {
+        revokedUntil.put(email, Instant.now().getEpochSecond());
+    }
+
+    public boolean isRevoked(String email, Date issuedAt) {
+        Long until = revokedUntil.getIfPresent(email);
+        if (until == null) {
+            return false;
+        }
+        // iat tiene precisión de segundos: ante la duda se considera revocado
+        return issuedAt == null || issuedAt.toInstant().getEpochSecond() <= until;
+    }
+}
@@ -1,5 +1,6 @@
 package com.padel.app.security;
 
+import com.padel.app.config.ReplicaRoutingDataSource;
 import com.padel.app.model.User;
 import com.padel.app.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,13 +19,10 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        // Del primario: quien acaba de registrarse tiene que poder entrar aunque la réplica vaya atrasada
+        User user = ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findByEmail(email))
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + email));
 
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPassword())
-                .roles(user.getRole().name())
-                .build();
+        return AuthenticatedUser.from(user);
     }
 }
@@ -1,11 +1,15 @@
 package com.padel.app.service;
 
+import com.padel.app.config.ReplicaRoutingDataSource;
 import com.padel.app.dto.auth.AuthResponse;
 import com.padel.app.dto.auth.LoginRequest;
 import com.padel.app.dto.auth.RegisterRequest;
 import com.padel.app.model.User;
 import com.padel.app.repository.UserRepository;
 import com.padel.app.security.JwtService;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 
 @Service
+@Timed("padel.service")
 public class AuthService {
 
     private static final Logger log = LoggerFactory.getLogger(AuthService.class);
@@ -26,12 +31,18 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final Counter loginFailures;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, AuthenticationManager authenticationManager) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService,
+                       AuthenticationManager authenticationManager, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.loginFailures = Counter.builder("padel.auth.failures")
+                .description("Autenticaciones rechazadas (login o token inválido)")
+                .tag("type", "login")
+                .register(meterRegistry);
     }
 
     @Transactional
@@ -63,10 +74,11 @@ public class AuthService {
                     new UsernamePasswordAuthenticationToken(request.email(), request.password())
             );
         } catch (AuthenticationException e) {
+            loginFailures.increment();
             throw new IllegalArgumentException("Credenciales inválidas.");
         }
 
-        User user = userRepository.findByEmail(request.email())
+        User user = ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findByEmail(request.email()))
                 .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado."));
 
         String token = jwtService.generateToken(user);
@@ -0,0 +1,98 @@
+package com.padel.app.service;
+
+import com.padel.app.dto.booking.BookingSlotDTO;
+import com.padel.app.dto.court.AvailabilityGridDTO;
+import com.padel.app.dto.court.CourtResponseDTO;
+import com.padel.app.dto.court.CourtSlotsDTO;
+import com.padel.app.repository.BookingRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grilla libre/ocupado de un día para todas las canchas (o un subconjunto): una consulta por rango
+ * sobre bookings y un bitmap de franjas por cancha, en lugar de una consulta por franja.
+ */
+@Service
+public class AvailabilityGridService {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final CourtService courtService;
+    private final BookingRepository bookingRepository;
+
+    public AvailabilityGridService(CourtService courtService, BookingRepository bookingRepository) {
+        this.courtService = courtService;
+        this.bookingRepository = bookingRepository;
+    }
+
+    public AvailabilityGridDTO getGrid(LocalDate date, Set<Long> courtIds, int slotMinutes) {
+        if (slotMinutes < 5 || MINUTES_PER_DAY % slotMinutes != 0) {
+            throw new IllegalArgumentException("La duración de la franja debe dividir el día en partes iguales (mínimo 5 minutos).");
+        }
+        int slots = MINUTES_PER_DAY / slotMinutes;
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+
+        // Catálogo desde la caché; solo las canchas pedidas, si se indicaron
+        List<CourtResponseDTO> courts = courtService.getAllCourts().stream()
+                .filter(court -> courtIds == null || courtIds.isEmpty() || courtIds.contains(court.idCourt()))
+                .toList();
+
+        List<BookingSlotDTO> bookings = courtIds == null || courtIds.isEmpty()
+                ? bookingRepository.findBookedSlotsBetween(dayStart, dayEnd)
+                : bookingRepository.findBookedSlotsBetween(courtIds, dayStart, dayEnd);
+
+        Map<Long, long[]> busyByCourt = new HashMap<>();
+        for (BookingSlotDTO booking : bookings) {
+            long[] bits = busyByCourt.computeIfAbsent(booking.idCourt(), id -> new long[(slots + 63) / 64]);
+            int first = slotIndex(dayStart, booking.startTime(), slotMinutes, false, slots);
+            int last = slotIndex(dayStart, booking.endTime(), slotMinutes, true, slots);
+            setRange(bits, first, last);
+        }
+
+        List<CourtSlotsDTO> grid = courts.stream()
+                .map(court -> new CourtSlotsDTO(court.idCourt(), court.nameCourt(),
+                        encode(busyByCourt.get(court.idCourt()), slots)))
+                .toList();
+        return new AvailabilityGridDTO(date, slotMinutes, slots, grid);
+    }
+
+    // Franja que contiene el instante (inicio) o primera franja libre después de él (fin), acotada al día
+    private static int slotIndex(LocalDateTime dayStart, LocalDateTime time, int slotMinutes, boolean roundUp, int slots) {
+        long seconds = Duration.between(dayStart, time).getSeconds();
+        long slotSeconds = slotMinutes * 60L;
+        if (seconds <= 0) {
+            return 0;
+        }
+        long index = roundUp ? (seconds + slotSeconds - 1) / slotSeconds : seconds / slotSeconds;
+        return (int) Math.min(index, slots);
+    }
+
+    // Marca las franjas [from, to) del bitmap
+    static void setRange(long[] bits, int from, int to) {
+        for (int i = from; i < to; ) {
+            int word = i >>> 6;
+            int offset = i & 63;
+            int count = Math.min(64 - offset, to - i);
+            long mask = count == 64 ? -1L : ((1L << count) - 1) << offset;
+            bits[word] |= mask;
+            i += count;
+        }
+    }
+
+    static String encode(long[] bits, int slots) {
+        char[] out = new char[slots];
+        for (int i = 0; i < slots; i++) {
+            boolean busy = bits != null && (bits[i >>> 6] & (1L << (i & 63))) != 0;
+            out[i] = busy ? '1' : '0';
+        }
+        return new String(out);
+    }
+}
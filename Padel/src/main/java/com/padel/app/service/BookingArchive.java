@@ -0,0 +1,143 @@
+package com.padel.app.service;
+
+import com.padel.app.repository.ArchivedBookingRepository;
+import com.padel.app.repository.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Separación de reservas calientes y frías. Las reservas COMPLETED o CANCELLED que terminaron hace
+ * más de horizon-days se mueven por lotes a bookings_archive (INSERT ... SELECT + DELETE en la misma
+ * transacción, filas tomadas con SKIP LOCKED), así bookings solo crece con la actividad reciente.
+ * Los listados consultan el archivo solo si el rango pedido llega a fechas anteriores a
+ * {@link #archivedBefore()}.
+ */
+@Component
+public class BookingArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingArchive.class);
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final TransactionTemplate transaction;
+
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+
+    private final Counter archived;
+
+    // Todo lo archivado tiene start_time anterior a este instante (además del horizonte configurado)
+    private volatile LocalDateTime archivedBefore;
+
+    public BookingArchive(BookingRepository bookingRepository, ArchivedBookingRepository archivedBookingRepository,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                          @Value("${padel.booking.archive.enabled:true}") boolean enabled,
+                          @Value("${padel.booking.archive.horizon-days:365}") int horizonDays,
+                          @Value("${padel.booking.archive.chunk-size:500}") int chunkSize,
+                          @Value("${padel.booking.archive.max-chunks-per-run:100}") int maxChunksPerRun) {
+        if (horizonDays < 1 || chunkSize < 1 || maxChunksPerRun < 1) {
+            throw new IllegalArgumentException("horizon-days, chunk-size y max-chunks-per-run deben ser mayores a 0");
+        }
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.archived = Counter.builder("padel.bookings.archived")
+                .description("Reservas movidas a bookings_archive")
+                .register(meterRegistry);
+    }
+
+    // Lo archivado con un horizonte anterior (más largo) puede ser más reciente que el horizonte actual
+    @PostConstruct
+    void loadWatermark() {
+        LocalDateTime maxStart = archivedBookingRepository.findMaxStartTime();
+        archivedBefore = maxStart == null ? null : maxStart.plusNanos(1_000);
+    }
+
+    /**
+     * Cota superior (exclusiva) de start_time en el archivo, o null si no hay nada archivado.
+     * Las demás instancias archivan con el mismo horizonte, por lo que sus filas también quedan
+     * antes de ahora - horizon-days. Con el job deshabilitado solo cuenta lo que ya estaba archivado.
+     */
+    public LocalDateTime archivedBefore() {
+        LocalDateTime local = archivedBefore;
+        if (!enabled) {
+            return local;
+        }
+        LocalDateTime bound = LocalDateTime.now().minusDays(horizonDays);
+        return local != null && local.isAfter(bound) ? local : bound;
+    }
+
+    // true si un listado que empieza en from (null = sin límite) puede incluir reservas archivadas
+    public boolean mayContain(LocalDateTime from) {
+        LocalDateTime bound = archivedBefore();
+        return bound != null && (from == null || from.isBefore(bound));
+    }
+
+    @Scheduled(cron = "${padel.booking.archive.cron:0 30 3 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveEndedBefore(LocalDateTime.now().minusDays(horizonDays));
+        } catch (RuntimeException e) {
+            log.error("Error archivando reservas; se reintenta en la próxima ejecución", e);
+        }
+    }
+
+    /**
+     * Mueve al archivo las reservas COMPLETED/CANCELLED que terminaron antes de {@code cutoff}.
+     * Devuelve cuántas movió.
+     */
+    public long archiveEndedBefore(LocalDateTime cutoff) {
+        long total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            int moved = transaction.execute(tx -> archiveChunk(cutoff));
+            total += moved;
+            if (moved < chunkSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("{} reservas archivadas (terminadas antes de {})", total, cutoff);
+        }
+        return total;
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = bookingRepository.findArchivableIdsForUpdate(cutoff, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // start_time < end_time < cutoff: se sube la cota antes de que las filas salgan de bookings
+        raiseWatermark(cutoff);
+        archivedBookingRepository.copyFromBookings(ids, LocalDateTime.now());
+        bookingRepository.deleteAllByIdInBatch(ids);
+        archived.increment(ids.size());
+        return ids.size();
+    }
+
+    private synchronized void raiseWatermark(LocalDateTime cutoff) {
+        if (archivedBefore == null || cutoff.isAfter(archivedBefore)) {
+            archivedBefore = cutoff;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.padel.app.service;
+
+import com.padel.app.repository.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pasa a COMPLETED las reservas BOOKED cuyo turno ya terminó. Trabaja por lotes: cada lote toma
+ * hasta chunk-size ids con SELECT ... FOR UPDATE SKIP LOCKED y los actualiza con un único UPDATE,
+ * en su propia transacción. Con varias instancias cada una toma filas distintas, y el UPDATE
+ * vuelve a exigir status = 'BOOKED', así que repetir un lote no tiene efecto.
+ * max-rows-per-second y max-chunks-per-run acotan la carga que el job le agrega a la base.
+ */
+@Component
+public class BookingCompletionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingCompletionJob.class);
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transaction;
+
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final long pauseMs;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter completed;
+    private final Timer chunkTimer;
+
+    public BookingCompletionJob(BookingRepository bookingRepository, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${padel.booking.completion.enabled:true}") boolean enabled,
+                                @Value("${padel.booking.completion.chunk-size:500}") int chunkSize,
+                                @Value("${padel.booking.completion.max-chunks-per-run:100}") int maxChunksPerRun,
+                                @Value("${padel.booking.completion.max-rows-per-second:0}") int maxRowsPerSecond) {
+        if (chunkSize < 1 || maxChunksPerRun < 1) {
+            throw new IllegalArgumentException("chunk-size y max-chunks-per-run deben ser mayores a 0");
+        }
+        this.bookingRepository = bookingRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        // Pausa entre lotes para no superar el ritmo configurado (0 = sin límite)
+        this.pauseMs = maxRowsPerSecond > 0 ? chunkSize * 1000L / maxRowsPerSecond : 0;
+
+        Gauge.builder("padel.bookings.completion.backlog", backlog, AtomicLong::get)
+                .description("Reservas terminadas que siguen en BOOKED")
+                .register(meterRegistry);
+        this.completed = Counter.builder("padel.bookings.completion.completed")
+                .description("Reservas pasadas a COMPLETED por el job")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("padel.bookings.completion.chunk")
+                .description("Duración de cada lote (select + update)")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${padel.booking.completion.interval-ms:300000}",
+            initialDelayString = "${padel.booking.completion.initial-delay-ms:60000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            completeEndedBookings(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Error pasando reservas a COMPLETED; se reintenta en la próxima ejecución", e);
+        }
+    }
+
+    /**
+     * Completa las reservas terminadas hasta {@code now}, en lotes. Devuelve cuántas actualizó.
+     */
+    public long completeEndedBookings(LocalDateTime now) {
+        backlog.set(bookingRepository.countEndedBooked(now));
+
+        long total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            if (chunk > 0 && !pause()) {
+                break;
+            }
+            Chunk result = chunkTimer.record(() -> transaction.execute(tx -> completeChunk(now)));
+            total += result.updated();
+            completed.increment(result.updated());
+            backlog.updateAndGet(remaining -> Math.max(0, remaining - result.updated()));
+
+            // Lote incompleto: no quedan filas libres (o las demás las tiene tomadas otra instancia)
+            if (result.selected() < chunkSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("{} reservas pasadas a COMPLETED; quedan {} pendientes", total, backlog.get());
+        }
+        return total;
+    }
+
+    private Chunk completeChunk(LocalDateTime now) {
+        List<Long> ids = bookingRepository.findEndedBookedIdsForUpdate(now, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return new Chunk(0, 0);
+        }
+        return new Chunk(ids.size(), bookingRepository.markCompleted(ids, LocalDateTime.now()));
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Chunk(int selected, int updated) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.padel.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.model.User;
+import com.padel.app.security.AuthenticatedUser;
+import com.padel.app.security.CurrentUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de reservas en NDJSON o CSV. Las filas se leen con un cursor de solo avance
+ * y se escriben directo en la respuesta, sin juntar el resultado en memoria.
+ */
+@Service
+public class BookingExportService {
+
+    // Misma consulta sobre bookings y sobre bookings_archive
+    private static final String EXPORT_QUERY_TEMPLATE = """
+            SELECT new com.padel.app.dto.booking.BookingResponseDTO(
+                b.idBooking, c.idCourt, c.nameCourt, u.idUser, u.nameUser, b.startTime, b.endTime, b.status)
+            FROM %s b JOIN b.court c JOIN b.createdBy u
+            WHERE (:courtId IS NULL OR c.idCourt = :courtId)
+            AND (:ownerId IS NULL OR c.owner.idUser = :ownerId)
+            AND (:status IS NULL OR b.status = :status)
+            AND (:from IS NULL OR b.startTime >= :from)
+            AND (:to IS NULL OR b.startTime < :to)
+            ORDER BY b.startTime, b.idBooking
+            """;
+    private static final String EXPORT_QUERY = EXPORT_QUERY_TEMPLATE.formatted("Booking");
+    private static final String ARCHIVE_EXPORT_QUERY = EXPORT_QUERY_TEMPLATE.formatted("ArchivedBooking");
+
+    private static final String CSV_HEADER = "idBooking,idCourt,nameCourt,idUser,nameUser,startTime,endTime,status\n";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format from(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato inválido. Usa ndjson o csv.");
+            }
+        }
+    }
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final CurrentUser currentUser;
+    private final BookingArchive bookingArchive;
+    private final int fetchSize;
+
+    public BookingExportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper, CurrentUser currentUser, BookingArchive bookingArchive,
+                                @Value("${padel.booking.export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.currentUser = currentUser;
+        this.bookingArchive = bookingArchive;
+        this.fetchSize = fetchSize;
+    }
+
+    // Los permisos se resuelven acá, en el hilo de la petición; la escritura corre después en el hilo asíncrono
+    public StreamingResponseBody export(Authentication auth, Format format, Long courtId, Long ownerId,
+                                        String statusFilter, LocalDateTime from, LocalDateTime to) {
+        AuthenticatedUser authUser = currentUser.from(auth);
+
+        if (authUser.hasRole(User.Role.USER)) {
+            throw new AccessDeniedException("No tienes permiso para exportar reservas.");
+        }
+        // OWNER: solo las reservas de sus canchas, igual que en getBookingById
+        if (authUser.hasRole(User.Role.OWNER)) {
+            if (ownerId != null && !ownerId.equals(authUser.getIdUser())) {
+                throw new AccessDeniedException("Solo puedes exportar las reservas de tus canchas.");
+            }
+            ownerId = authUser.getIdUser();
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("La fecha 'from' debe ser anterior a 'to'.");
+        }
+        Booking.Status status = BookingService.parseStatus(statusFilter);
+        Long scopedOwnerId = ownerId;
+        boolean includeArchive = bookingArchive.mayContain(from);
+
+        // Lo archivado es anterior a lo que queda en bookings: primero el archivo y después la tabla
+        // caliente, cada parte ordenada. Las consultas van una después de la otra porque MySQL no
+        // admite dos resultados en streaming abiertos sobre la misma conexión.
+        return out -> readOnlyTransaction.executeWithoutResult(tx -> {
+            try {
+                OutputStream buffered = new BufferedOutputStream(out);
+                if (format == Format.CSV) {
+                    buffered.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+                }
+                if (includeArchive) {
+                    try (Stream<BookingResponseDTO> rows = streamBookings(ARCHIVE_EXPORT_QUERY, courtId,
+                            scopedOwnerId, status, from, to)) {
+                        write(format, rows, buffered);
+                    }
+                }
+                try (Stream<BookingResponseDTO> rows = streamBookings(EXPORT_QUERY, courtId, scopedOwnerId,
+                        status, from, to)) {
+                    write(format, rows, buffered);
+                }
+                buffered.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo escribir la exportación de reservas.", e);
+            }
+        });
+    }
+
+    private Stream<BookingResponseDTO> streamBookings(String jpql, Long courtId, Long ownerId, Booking.Status status,
+                                                      LocalDateTime from, LocalDateTime to) {
+        TypedQuery<BookingResponseDTO> query = entityManager.createQuery(jpql, BookingResponseDTO.class)
+                .setParameter("courtId", courtId)
+                .setParameter("ownerId", ownerId)
+                .setParameter("status", status)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                // MySQL solo transmite fila a fila con fetch size Integer.MIN_VALUE (ver application.properties)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        return query.getResultStream();
+    }
+
+    private void write(Format format, Stream<BookingResponseDTO> rows, OutputStream out) throws IOException {
+        for (BookingResponseDTO booking : (Iterable<BookingResponseDTO>) rows::iterator) {
+            if (format == Format.CSV) {
+                out.write(toCsvLine(booking).getBytes(StandardCharsets.UTF_8));
+            } else {
+                out.write(objectMapper.writeValueAsBytes(booking));
+                out.write('\n');
+            }
+        }
+    }
+
+    private static String toCsvLine(BookingResponseDTO b) {
+        return String.join(",",
+                String.valueOf(b.idBooking()),
+                String.valueOf(b.idCourt()),
+                csv(b.nameCourt()),
+                String.valueOf(b.idUser()),
+                csv(b.nameUser()),
+                String.valueOf(b.startTime()),
+                String.valueOf(b.endTime()),
+                b.status()) + "\n";
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,252 @@
+package com.padel.app.service;
+
+import com.padel.app.dto.booking.BookingSlotDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria de las reservas BOOKED futuras, agrupadas por cancha y ordenadas por inicio.
+ * Responde conflictos y disponibilidad en O(log n) sin ir a la base de datos; la base de datos
+ * sigue siendo la autoridad final dentro de la transacción de reserva.
+ * Es de cada instancia: ve al instante lo que confirma esta instancia, y lo que cambia en otras (o
+ * por fuera de BookingService) recién con la próxima resincronización contra la base, cada
+ * padel.booking.index.resync-interval-ms. Hasta entonces la disponibilidad que responde puede
+ * mostrar libre una cancha reservada en otra instancia, u ocupada una cancelada allá.
+ */
+@Component
+public class BookingIntervalIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingIntervalIndex.class);
+
+    private static final Comparator<BookingSlotDTO> BY_START =
+            Comparator.comparing(BookingSlotDTO::startTime).thenComparing(BookingSlotDTO::idBooking);
+
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+
+    private final Map<Long, CourtSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<Long, BookingSlotDTO> slotsByBooking = new ConcurrentHashMap<>();
+
+    // Instante desde el cual el índice contiene todas las reservas; null mientras no está cargado
+    private volatile LocalDateTime horizon;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${padel.booking.index.enabled:true}") boolean enabled) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+    }
+
+    // Se carga antes de que el servidor acepte peticiones
+    @PostConstruct
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Índice de reservas en memoria deshabilitado");
+            return;
+        }
+        LocalDateTime from = LocalDateTime.now();
+        bookingRepository.findBookedSlotsEndingAfter(from).forEach(this::put);
+        horizon = from;
+        log.info("Índice de reservas cargado: {} reservas en {} canchas", slotsByBooking.size(), schedules.size());
+    }
+
+    // El índice puede responder por ventanas que empiezan a partir de su horizonte
+    public boolean covers(LocalDateTime start) {
+        LocalDateTime current = horizon;
+        return current != null && !start.isBefore(current);
+    }
+
+    public boolean hasConflict(Long courtId, LocalDateTime start, LocalDateTime end) {
+        CourtSchedule schedule = schedules.get(courtId);
+        return schedule != null && schedule.overlaps(start, end);
+    }
+
+    public boolean isFree(Long courtId, LocalDateTime start, LocalDateTime end) {
+        return !hasConflict(courtId, start, end);
+    }
+
+    public int size() {
+        return slotsByBooking.size();
+    }
+
+    // Registra el estado de la reserva una vez confirmada la transacción actual
+    public void track(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        BookingSlotDTO slot = new BookingSlotDTO(booking.getIdBooking(), booking.getCourt().getIdCourt(),
+                booking.getStartTime(), booking.getEndTime());
+        boolean booked = booking.getStatus() == Booking.Status.BOOKED;
+        afterCommit(() -> {
+            if (booked) {
+                put(slot);
+            } else {
+                remove(slot.idBooking());
+            }
+        });
+    }
+
+    public void untrack(Long bookingId) {
+        if (enabled) {
+            afterCommit(() -> remove(bookingId));
+        }
+    }
+
+    void put(BookingSlotDTO slot) {
+        BookingSlotDTO previous = slotsByBooking.put(slot.idBooking(), slot);
+        if (previous != null) {
+            schedules.get(previous.idCourt()).remove(previous);
+        }
+        schedules.computeIfAbsent(slot.idCourt(), id -> new CourtSchedule()).add(slot);
+    }
+
+    void remove(Long bookingId) {
+        BookingSlotDTO previous = slotsByBooking.remove(bookingId);
+        if (previous != null) {
+            schedules.get(previous.idCourt()).remove(previous);
+        }
+    }
+
+    // Alinea el índice con la base: trae lo que confirmaron otras instancias y descarta lo que allá se
+    // canceló. Solo quita reservas que ya estaban antes de la consulta; las que esta instancia confirme
+    // mientras tanto no están en el resultado y se conservan
+    @Scheduled(initialDelayString = "${padel.booking.index.resync-interval-ms:60000}",
+            fixedDelayString = "${padel.booking.index.resync-interval-ms:60000}")
+    public void resync() {
+        if (!enabled || horizon == null) {
+            return;
+        }
+        Set<Long> known = new HashSet<>(slotsByBooking.keySet());
+        List<BookingSlotDTO> current = bookingRepository.findBookedSlotsEndingAfter(LocalDateTime.now());
+        int added = 0;
+        for (BookingSlotDTO slot : current) {
+            known.remove(slot.idBooking());
+            // Sin cambios no se toca: quitar y volver a agregar dejaría un instante sin la reserva
+            if (!slot.equals(slotsByBooking.get(slot.idBooking()))) {
+                put(slot);
+                added++;
+            }
+        }
+        known.forEach(this::remove);
+        if (added > 0 || !known.isEmpty()) {
+            log.info("Índice de reservas resincronizado: {} reservas nuevas o movidas, {} quitadas", added, known.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${padel.booking.index.prune-interval-ms:3600000}")
+    public void pruneEnded() {
+        if (enabled && horizon != null) {
+            prune(LocalDateTime.now());
+        }
+    }
+
+    // Descarta las reservas ya terminadas y adelanta el horizonte
+    void prune(LocalDateTime before) {
+        schedules.values().forEach(schedule -> schedule.removeEndedBefore(before)
+                .forEach(slot -> slotsByBooking.remove(slot.idBooking(), slot)));
+        if (horizon != null && before.isAfter(horizon)) {
+            horizon = before;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Reservas de una cancha ordenadas por inicio; maxDuration acota el rango a revisar hacia atrás
+    private static final class CourtSchedule {
+        private final NavigableSet<BookingSlotDTO> slots = new TreeSet<>(BY_START);
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private Duration maxDuration = Duration.ZERO;
+
+        void add(BookingSlotDTO slot) {
+            lock.writeLock().lock();
+            try {
+                slots.add(slot);
+                Duration duration = Duration.between(slot.startTime(), slot.endTime());
+                if (duration.compareTo(maxDuration) > 0) {
+                    maxDuration = duration;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(BookingSlotDTO slot) {
+            lock.writeLock().lock();
+            try {
+                slots.remove(slot);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            lock.readLock().lock();
+            try {
+                // Solo pueden solapar las reservas que empiezan en (start - maxDuration, end)
+                BookingSlotDTO from = new BookingSlotDTO(Long.MIN_VALUE, null, start.minus(maxDuration), null);
+                BookingSlotDTO to = new BookingSlotDTO(Long.MIN_VALUE, null, end, null);
+                for (BookingSlotDTO slot : slots.subSet(from, false, to, false)) {
+                    if (slot.endTime().isAfter(start)) {
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<BookingSlotDTO> removeEndedBefore(LocalDateTime before) {
+            lock.writeLock().lock();
+            try {
+                List<BookingSlotDTO> removed = new ArrayList<>();
+                Iterator<BookingSlotDTO> it = slots.iterator();
+                while (it.hasNext()) {
+                    BookingSlotDTO slot = it.next();
+                    if (!slot.startTime().isBefore(before)) {
+                        break;
+                    }
+                    if (!slot.endTime().isAfter(before)) {
+                        removed.add(slot);
+                        it.remove();
+                    }
+                }
+                return removed;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
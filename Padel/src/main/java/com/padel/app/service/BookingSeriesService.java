@@ -0,0 +1,162 @@
+package com.padel.app.service;
+
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.dto.booking.BookingSeriesConflictDTO;
+import com.padel.app.dto.booking.BookingSeriesDTO;
+import com.padel.app.dto.booking.BookingSeriesResultDTO;
+import com.padel.app.dto.booking.BookingSlotDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import com.padel.app.security.CurrentUser;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reservas recurrentes (ligas semanales, turnos fijos). Todas las ocurrencias se validan contra
+ * una sola consulta por rango; las libres se insertan juntas en batch JDBC y las ocupadas se
+ * devuelven una por una con la reserva con la que chocan.
+ */
+@Service
+@Timed("padel.service")
+public class BookingSeriesService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingSeriesService.class);
+    static final int MAX_OCCURRENCES = 104;
+    static final int MAX_INTERVAL = 52;
+
+    private final BookingRepository bookingRepository;
+    private final CourtRepository courtRepository;
+    private final UserRepository userRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final CourtBookingLocks courtBookingLocks;
+    private final CurrentUser currentUser;
+    private final NotificationOutbox notificationOutbox;
+
+    public BookingSeriesService(BookingRepository bookingRepository, CourtRepository courtRepository,
+                                UserRepository userRepository, BookingIntervalIndex bookingIntervalIndex,
+                                CourtBookingLocks courtBookingLocks, CurrentUser currentUser,
+                                NotificationOutbox notificationOutbox) {
+        this.bookingRepository = bookingRepository;
+        this.courtRepository = courtRepository;
+        this.userRepository = userRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.courtBookingLocks = courtBookingLocks;
+        this.currentUser = currentUser;
+        this.notificationOutbox = notificationOutbox;
+    }
+
+    @Transactional
+    public BookingSeriesResultDTO createSeries(BookingSeriesDTO dto) {
+        List<Occurrence> occurrences = expand(dto);
+        AuthenticatedUser authUser = currentUser.get();
+        User user = userRepository.getReferenceById(authUser.getIdUser());
+
+        // Mismo esquema de locks que una reserva individual: cancha bloqueada hasta el commit
+        courtBookingLocks.lockUntilTransactionEnds(dto.idCourt());
+        Court court = courtRepository.findByIdForUpdate(dto.idCourt())
+                .orElseThrow(() -> new EntityNotFoundException("La cancha no existe."));
+
+        // Una sola consulta para todo el rango de la serie
+        Occurrence last = occurrences.get(occurrences.size() - 1);
+        List<BookingSlotDTO> booked = new ArrayList<>(bookingRepository.findBookedSlotsBetween(
+                List.of(court.getIdCourt()), occurrences.get(0).start(), last.end()));
+        booked.sort(Comparator.comparing(BookingSlotDTO::startTime));
+
+        List<Booking> accepted = new ArrayList<>();
+        List<BookingSeriesConflictDTO> conflicts = new ArrayList<>();
+        int next = 0;
+        for (Occurrence occurrence : occurrences) {
+            // Las ocurrencias y las reservas BOOKED de una cancha no se superponen entre sí: basta un recorrido
+            while (next < booked.size() && !booked.get(next).endTime().isAfter(occurrence.start())) {
+                next++;
+            }
+            if (next < booked.size() && booked.get(next).startTime().isBefore(occurrence.end())) {
+                conflicts.add(new BookingSeriesConflictDTO(occurrence.start(), occurrence.end(),
+                        booked.get(next).idBooking()));
+            } else {
+                accepted.add(new Booking(court, user, occurrence.start(), occurrence.end()));
+            }
+        }
+
+        // Ids por bloques (ver Booking): los INSERT salen en batch de hibernate.jdbc.batch_size
+        List<Booking> saved = bookingRepository.saveAll(accepted);
+        saved.forEach(bookingIntervalIndex::track);
+        if (!saved.isEmpty()) {
+            notificationOutbox.seriesConfirmed(court, saved, authUser.getEmail());
+        }
+
+        log.info("Serie de reservas en court={}: {} creadas, {} en conflicto, user={}",
+                court.getIdCourt(), saved.size(), conflicts.size(), authUser.getEmail());
+        return new BookingSeriesResultDTO(saved.stream().map(BookingSeriesService::toResponse).toList(), conflicts);
+    }
+
+    // Ocurrencias de la serie en orden; valida la regla antes de tomar locks
+    static List<Occurrence> expand(BookingSeriesDTO dto) {
+        if (!dto.startTime().isBefore(dto.endTime())) {
+            throw new IllegalArgumentException("La hora de inicio debe ser anterior a la hora de fin.");
+        }
+        int interval = dto.interval() == null ? 1 : dto.interval();
+        if (interval < 1 || interval > MAX_INTERVAL) {
+            throw new IllegalArgumentException("El intervalo debe estar entre 1 y " + MAX_INTERVAL + ".");
+        }
+        if ((dto.count() == null) == (dto.until() == null)) {
+            throw new IllegalArgumentException("Indica la cantidad de ocurrencias (count) o la fecha final (until), no ambas.");
+        }
+        if (dto.count() != null && (dto.count() < 1 || dto.count() > MAX_OCCURRENCES)) {
+            throw new IllegalArgumentException("La serie debe tener entre 1 y " + MAX_OCCURRENCES + " ocurrencias.");
+        }
+
+        Duration step = dto.frequency() == BookingSeriesDTO.Frequency.DAILY
+                ? Duration.ofDays(interval)
+                : Duration.ofDays(7L * interval);
+        Duration length = Duration.between(dto.startTime(), dto.endTime());
+        if (length.compareTo(step) > 0) {
+            throw new IllegalArgumentException("Cada reserva de la serie debe terminar antes de que empiece la siguiente.");
+        }
+
+        List<Occurrence> occurrences = new ArrayList<>();
+        LocalDateTime start = dto.startTime();
+        while (dto.count() != null ? occurrences.size() < dto.count() : !start.toLocalDate().isAfter(dto.until())) {
+            if (occurrences.size() == MAX_OCCURRENCES) {
+                throw new IllegalArgumentException("La serie debe tener entre 1 y " + MAX_OCCURRENCES + " ocurrencias.");
+            }
+            occurrences.add(new Occurrence(start, start.plus(length)));
+            start = start.plus(step);
+        }
+        if (occurrences.isEmpty()) {
+            throw new IllegalArgumentException("La fecha final (until) es anterior a la primera reserva.");
+        }
+        return occurrences;
+    }
+
+    private static BookingResponseDTO toResponse(Booking booking) {
+        return new BookingResponseDTO(
+                booking.getIdBooking(),
+                booking.getCourt().getIdCourt(),
+                booking.getCourt().getNameCourt(),
+                booking.getCreatedBy().getIdUser(),
+                booking.getCreatedBy().getNameUser(),
+                booking.getStartTime(),
+                booking.getEndTime(),
+                booking.getStatus().name()
+        );
+    }
+
+    record Occurrence(LocalDateTime start, LocalDateTime end) {
+    }
+}
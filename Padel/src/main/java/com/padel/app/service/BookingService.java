@@ -1,71 +1,121 @@
 package com.padel.app.service;
 
 import com.padel.app.dto.booking.BookingDTO;
+import com.padel.app.dto.booking.BookingPageDTO;
 import com.padel.app.dto.booking.BookingResponseDTO;
 import com.padel.app.model.Booking;
 import com.padel.app.model.Court;
 import com.padel.app.model.User;
+import com.padel.app.repository.ArchivedBookingRepository;
 import com.padel.app.repository.BookingRepository;
 import com.padel.app.repository.CourtRepository;
 import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import com.padel.app.security.CurrentUser;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
+@Timed("padel.service")
 public class BookingService {
 
     private static final Logger log = LoggerFactory.getLogger(BookingService.class);
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Comparator<BookingResponseDTO> NEWEST_FIRST = Comparator
+            .comparing(BookingResponseDTO::startTime)
+            .thenComparing(BookingResponseDTO::idBooking)
+            .reversed();
+
     private final BookingRepository bookingRepository;
     private final CourtRepository courtRepository;
     private final UserRepository userRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final CourtBookingLocks courtBookingLocks;
+    private final CurrentUser currentUser;
+    private final NotificationOutbox notificationOutbox;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingArchive bookingArchive;
+
+    private final Counter conflictsBeforeLock;
+    private final Counter conflictsUnderLock;
+    private final Counter cancellations;
 
     public BookingService(BookingRepository bookingRepository, CourtRepository courtRepository,
-                          UserRepository userRepository) {
+                          UserRepository userRepository, BookingIntervalIndex bookingIntervalIndex,
+                          CourtBookingLocks courtBookingLocks, CurrentUser currentUser,
+                          NotificationOutbox notificationOutbox, ArchivedBookingRepository archivedBookingRepository,
+                          BookingArchive bookingArchive, MeterRegistry meterRegistry) {
         this.bookingRepository = bookingRepository;
         this.courtRepository = courtRepository;
         this.userRepository = userRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.courtBookingLocks = courtBookingLocks;
+        this.currentUser = currentUser;
+        this.notificationOutbox = notificationOutbox;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.bookingArchive = bookingArchive;
+
+        // stage=index: rechazo rápido antes del lock; stage=locked: detectado ya con la cancha bloqueada
+        this.conflictsBeforeLock = Counter.builder("padel.bookings.conflicts")
+                .description("Reservas rechazadas por superponerse con otra")
+                .tag("stage", "index")
+                .register(meterRegistry);
+        this.conflictsUnderLock = Counter.builder("padel.bookings.conflicts")
+                .description("Reservas rechazadas por superponerse con otra")
+                .tag("stage", "locked")
+                .register(meterRegistry);
+        this.cancellations = Counter.builder("padel.bookings.cancellations")
+                .description("Reservas canceladas")
+                .register(meterRegistry);
     }
 
-    public List<BookingResponseDTO> getAllBookings(Authentication auth) {
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+    // Listado general por páginas (keyset). OWNER queda restringido a las reservas de sus canchas
+    @Transactional(readOnly = true)
+    public BookingPageDTO getBookings(Authentication auth, Long courtId, Long ownerId, Long userId, String status,
+                                      LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        AuthenticatedUser authUser = currentUser.from(auth);
 
-        if (authUser.getRole() == User.Role.USER) {
+        if (authUser.hasRole(User.Role.USER)) {
             throw new AccessDeniedException("No tienes permiso para ver todas las reservas.");
         }
+        if (authUser.hasRole(User.Role.OWNER)) {
+            if (ownerId != null && !ownerId.equals(authUser.getIdUser())) {
+                throw new AccessDeniedException("Solo puedes ver las reservas de tus canchas.");
+            }
+            ownerId = authUser.getIdUser();
+        }
 
-        return bookingRepository.findAll()
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+        return findBookingsPage(courtId, ownerId, userId, status, from, to, cursor, size);
     }
 
+    @Transactional(readOnly = true)
     public Optional<BookingResponseDTO> getBookingById(Long id, Authentication auth) {
-        Booking booking = bookingRepository.findById(id)
+        Booking booking = bookingRepository.findWithCourtAndUserByIdBooking(id)
                 .orElseThrow(() -> new EntityNotFoundException("Reserva no encontrada"));
 
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
-        if (authUser.getRole() == User.Role.ADMIN) {
+        if (authUser.hasRole(User.Role.ADMIN)) {
             return Optional.of(mapToResponseDTO(booking));
         }
-        if (authUser.getRole() == User.Role.OWNER) {
+        if (authUser.hasRole(User.Role.OWNER)) {
             if (booking.getCourt().getOwner().getIdUser().equals(authUser.getIdUser())) {
                 return Optional.of(mapToResponseDTO(booking));
             }
@@ -83,25 +133,34 @@ public class BookingService {
         log.info("Intentando crear reserva: court={}, start={}, end={}",
                 dto.idCourt(), dto.startTime(), dto.endTime());
 
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.get();
+        User user = userRepository.getReferenceById(authUser.getIdUser());
 
-        if (authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")) && user.getIdUser() != null) {
-            user = userRepository.findById(user.getIdUser()).orElseThrow(() -> new EntityNotFoundException("Usuario destino no encontrado"));
+        validateBookingDates(dto.startTime(), dto.endTime());
+
+        // Rechazo rápido sin esperar locks: el índice solo da la pista y la base la confirma. Un índice
+        // desactualizado (cancelación en otra instancia, cambio por fuera del servicio) cae al camino con lock
+        if (bookingIntervalIndex.hasConflict(dto.idCourt(), dto.startTime(), dto.endTime())
+                && bookingRepository.existsByCourtAndTimeRange(dto.idCourt(), dto.startTime(), dto.endTime())) {
+            conflictsBeforeLock.increment();
+            throw new IllegalArgumentException("La cancha no está disponible en ese horario.");
         }
 
-        Court court = getCourt(dto.idCourt());
+        // Lock en memoria por cancha + lock de fila en la base: dos reservas de la misma cancha
+        // no pueden validar disponibilidad a la vez; canchas distintas no se bloquean entre sí
+        courtBookingLocks.lockUntilTransactionEnds(dto.idCourt());
+        Court court = getCourtForUpdate(dto.idCourt());
 
-        validateBookingDates(dto.startTime(), dto.endTime());
         validateCourtAvailability(court, dto.startTime(), dto.endTime());
 
         Booking booking = new Booking(court, user, dto.startTime(), dto.endTime());
         Booking saved = bookingRepository.save(booking);
+        bookingIntervalIndex.track(saved);
+        // El email se envía en segundo plano desde el outbox, fuera de este request
+        notificationOutbox.bookingConfirmed(saved, authUser.getEmail());
 
         log.info("Reserva creada exitosamente: bookingId={}, court={}, user={}",
-                saved.getIdBooking(), court.getNameCourt(), user.getNameUser());
+                saved.getIdBooking(), court.getNameCourt(), authUser.getEmail());
         return mapToResponseDTO(saved);
     }
 
@@ -111,25 +170,30 @@ public class BookingService {
         }
     }
 
-    private Court getCourt(Long courtId) {
-        return courtRepository.findById(courtId)
+    private Court getCourtForUpdate(Long courtId) {
+        return courtRepository.findByIdForUpdate(courtId)
                 .orElseThrow(() -> new EntityNotFoundException("La cancha no existe."));
     }
 
-    private User getUser(Long userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("El usuario no existe."));
+    private void validateCourtAvailability(Court court, LocalDateTime start, LocalDateTime end) {
+        validateCourtAvailability(court, start, end, null);
     }
 
-    private void validateCourtAvailability(Court court, LocalDateTime start, LocalDateTime end) {
-        boolean overlapping = bookingRepository.existsByCourtAndTimeRange(court.getIdCourt(), start, end);
+    // excludedBookingId: la reserva que se mueve no choca consigo misma
+    private void validateCourtAvailability(Court court, LocalDateTime start, LocalDateTime end, Long excludedBookingId) {
+        // Bajo el lock decide solo la base: el índice puede tener reservas que ya no existen
+        boolean overlapping = excludedBookingId == null
+                ? bookingRepository.existsByCourtAndTimeRange(court.getIdCourt(), start, end)
+                : bookingRepository.existsOtherByCourtAndTimeRange(court.getIdCourt(), start, end, excludedBookingId);
         if (overlapping) {
+            conflictsUnderLock.increment();
             throw new IllegalArgumentException("La cancha no está disponible en ese horario.");
         }
     }
 
     public void deleteBooking(Long id) {
         bookingRepository.deleteById(id);
+        bookingIntervalIndex.untrack(id);
     }
 
     @Transactional
@@ -141,44 +205,47 @@ public class BookingService {
             throw new RuntimeException("La hora de inicio debe ser anterior a la hora de fin.");
         }
 
-        Court court = courtRepository.findById(dto.idCourt())
-                .orElseThrow(() -> new RuntimeException("Cancha no encontrada"));
-
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.get();
 
-        if (!user.getRole().equals(User.Role.ADMIN) && !user.getRole().equals(User.Role.OWNER)) {
-            if (!booking.getCreatedBy().getIdUser().equals(user.getIdUser())) {
+        if (!authUser.hasRole(User.Role.ADMIN) && !authUser.hasRole(User.Role.OWNER)) {
+            if (!booking.getCreatedBy().getIdUser().equals(authUser.getIdUser())) {
                 throw new AccessDeniedException("No puedes modificar reservas de otros usuarios.");
             }
         }
 
+        // Mismos locks que createBooking sobre la cancha de destino
+        courtBookingLocks.lockUntilTransactionEnds(dto.idCourt());
+        Court court = courtRepository.findByIdForUpdate(dto.idCourt())
+                .orElseThrow(() -> new RuntimeException("Cancha no encontrada"));
+        if (booking.getStatus() == Booking.Status.BOOKED) {
+            validateCourtAvailability(court, dto.startTime(), dto.endTime(), booking.getIdBooking());
+        }
+
+        User user = userRepository.getReferenceById(authUser.getIdUser());
         booking.setCourt(court);
         booking.setCreatedBy(user);
         booking.setStartTime(dto.startTime());
         booking.setEndTime(dto.endTime());
 
-        System.out.printf("Reserva %d actualizada: Cancha=%s Usuario=%s Inicio=%s Fin=%s%n",
-                booking.getIdBooking(), court.getNameCourt(), user.getNameUser(),
+        log.info("Reserva actualizada: bookingId={}, court={}, user={}, start={}, end={}",
+                booking.getIdBooking(), court.getNameCourt(), authUser.getEmail(),
                 booking.getStartTime(), booking.getEndTime());
 
-        return mapToResponseDTO(bookingRepository.save(booking));
+        Booking saved = bookingRepository.save(booking);
+        bookingIntervalIndex.track(saved);
+        return mapToResponseDTO(saved);
     }
 
     @Transactional
     public BookingResponseDTO updateBookingPartial(Long id, Map<String, Object> updates) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User authUser = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.get();
 
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
 
-        if (authUser.getRole() == User.Role.ADMIN) {
+        if (authUser.hasRole(User.Role.ADMIN)) {
             // OK
-        } else if (authUser.getRole() == User.Role.OWNER) {
+        } else if (authUser.hasRole(User.Role.OWNER)) {
             if (!booking.getCourt().getOwner().getIdUser().equals(authUser.getIdUser())) {
                 throw new AccessDeniedException("No tienes permiso para modificar/cancelar esta reserva.");
             }
@@ -188,14 +255,17 @@ public class BookingService {
             }
         }
 
+        // Mismos locks que createBooking sobre la cancha en la que queda la reserva, antes de tocarla
+        Long targetCourtId = updates.containsKey("courtId")
+                ? Long.valueOf(updates.get("courtId").toString())
+                : booking.getCourt().getIdCourt();
+        courtBookingLocks.lockUntilTransactionEnds(targetCourtId);
+        Court targetCourt = courtRepository.findByIdForUpdate(targetCourtId)
+                .orElseThrow(() -> new RuntimeException("Cancha no encontrada"));
+
         updates.forEach((key, value) -> {
             switch (key) {
-                case "courtId" -> {
-                    Long courtId = Long.parseLong(value.toString());
-                    Court court = courtRepository.findById(courtId)
-                            .orElseThrow(() -> new RuntimeException("Cancha no encontrada"));
-                    booking.setCourt(court);
-                }
+                case "courtId" -> booking.setCourt(targetCourt);
                 case "userId" -> {
                     Long userId = Long.parseLong(value.toString());
                     User user = userRepository.findById(userId)
@@ -212,10 +282,16 @@ public class BookingService {
         if (booking.getStartTime().isAfter(booking.getEndTime())) {
             throw new RuntimeException("Tiempo de inicio debe ser anterior al tiempo de finalización.");
         }
+        // También si se reactiva una cancelada
+        if (booking.getStatus() == Booking.Status.BOOKED) {
+            validateCourtAvailability(targetCourt, booking.getStartTime(), booking.getEndTime(), booking.getIdBooking());
+        }
 
-        System.out.printf("Reserva %d parcialmente actualizada: %s%n", booking.getIdBooking(), updates);
+        log.info("Reserva parcialmente actualizada: bookingId={}, campos={}", booking.getIdBooking(), updates.keySet());
 
-        return mapToResponseDTO(bookingRepository.save(booking));
+        Booking saved = bookingRepository.save(booking);
+        bookingIntervalIndex.track(saved);
+        return mapToResponseDTO(saved);
     }
 
     @Transactional
@@ -227,61 +303,100 @@ public class BookingService {
             throw new IllegalStateException("La reserva ya fue cancelada.");
         }
 
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.get();
 
-        if (!user.getRole().equals(User.Role.ADMIN) && !user.getRole().equals(User.Role.OWNER)) {
-            if (!booking.getCreatedBy().getIdUser().equals(user.getIdUser())) {
+        if (!authUser.hasRole(User.Role.ADMIN) && !authUser.hasRole(User.Role.OWNER)) {
+            if (!booking.getCreatedBy().getIdUser().equals(authUser.getIdUser())) {
                 throw new AccessDeniedException("No puedes cancelar reservas de otros usuarios.");
             }
         }
 
         booking.setStatus(Booking.Status.CANCELLED);
         log.info("Reserva cancelada: bookingId={}, user={}",
-                booking.getIdBooking(), booking.getCreatedBy().getEmail());
+                booking.getIdBooking(), authUser.getEmail());
 
-        return mapToResponseDTO(bookingRepository.save(booking));
+        Booking saved = bookingRepository.save(booking);
+        bookingIntervalIndex.track(saved);
+        notificationOutbox.bookingCancelled(saved, saved.getCreatedBy().getEmail());
+        cancellations.increment();
+        return mapToResponseDTO(saved);
     }
 
-    //Obtener las reservas del Usuario logueado
-    public List<BookingResponseDTO> getBookingsByAuthenticatedUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado."));
-
-        return bookingRepository.findByCreatedBy(user)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+    //Paginación (keyset) de las reservas del Usuario logueado
+    @Transactional(readOnly = true)
+    public BookingPageDTO getBookingsByAuthenticatedUser(Long courtId, String status, LocalDateTime from,
+                                                         LocalDateTime to, String cursor, int size) {
+        Long userId = currentUser.get().getIdUser();
+        return findBookingsPage(courtId, null, userId, status, from, to, cursor, size);
     }
 
-    //Paginación
-    public Page<BookingResponseDTO> getBookingsByAuthenticatedUser(int page, int size, String statusFilter) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
+    // ETag de "mis reservas": cambia con cualquier alta, baja o modificación de las reservas del usuario
+    // y distingue cada combinación de filtros/página pedida
+    @Transactional(readOnly = true)
+    public String getMyBookingsEtag(Long courtId, String status, LocalDateTime from, LocalDateTime to,
+                                    String cursor, int size) {
+        Long userId = currentUser.get().getIdUser();
+        String query = Integer.toHexString(Objects.hash(courtId, status, from, to, cursor, size));
+        return bookingRepository.findVersionByUser(userId).etag("bookings-" + userId + "-" + query);
+    }
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado."));
+    private BookingPageDTO findBookingsPage(Long courtId, Long ownerId, Long userId, String statusFilter,
+                                            LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE + ".");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("La fecha 'from' debe ser anterior a 'to'.");
+        }
+        Booking.Status status = parseStatus(statusFilter);
+        BookingCursor after = BookingCursor.decode(cursor);
+
+        LocalDateTime afterStart = after == null ? null : after.startTime();
+        Long afterId = after == null ? null : after.idBooking();
+
+        // Se pide un elemento de más para saber si hay página siguiente sin un COUNT aparte
+        Limit limit = Limit.of(size + 1);
+        List<BookingResponseDTO> rows = bookingRepository.findResponsesPage(
+                courtId, ownerId, userId, status, from, to, afterStart, afterId, limit);
+
+        // Lo archivado es más viejo que archivedBefore: solo hace falta si la página no se llenó
+        // con reservas posteriores a esa fecha
+        if (bookingArchive.mayContain(from) && (rows.size() <= size
+                || rows.get(size).startTime().isBefore(bookingArchive.archivedBefore()))) {
+            List<BookingResponseDTO> archived = archivedBookingRepository.findResponsesPage(
+                    courtId, ownerId, userId, status, from, to, afterStart, afterId, limit);
+            rows = mergeNewestFirst(rows, archived, size + 1);
+        }
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by("startTime").descending());
-        Page<Booking> bookings;
+        if (rows.size() <= size) {
+            return new BookingPageDTO(rows, null);
+        }
+        List<BookingResponseDTO> items = List.copyOf(rows.subList(0, size));
+        BookingResponseDTO last = items.get(size - 1);
+        return new BookingPageDTO(items, new BookingCursor(last.startTime(), last.idBooking()).encode());
+    }
 
-        if (statusFilter != null && !statusFilter.isBlank()) {
-            try {
-                Booking.Status status = Booking.Status.valueOf(statusFilter.toUpperCase());
-                bookings = bookingRepository.findByCreatedByAndStatus(user, status, pageable);
-            } catch (IllegalArgumentException e) {
-                throw new RuntimeException("Estado inválido. Usa BOOKED, CANCELLED o COMPLETED.");
-            }
-        } else {
-            bookings = bookingRepository.findByCreatedBy(user, pageable);
+    private static List<BookingResponseDTO> mergeNewestFirst(List<BookingResponseDTO> hot,
+                                                             List<BookingResponseDTO> archived, int limit) {
+        if (archived.isEmpty()) {
+            return hot;
         }
+        List<BookingResponseDTO> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        merged.addAll(archived);
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
 
-        return bookings.map(this::mapToResponseDTO);
+    static Booking.Status parseStatus(String statusFilter) {
+        if (statusFilter == null || statusFilter.isBlank()) {
+            return null;
+        }
+        try {
+            return Booking.Status.valueOf(statusFilter.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Estado inválido. Usa BOOKED, CANCELLED o COMPLETED.");
+        }
     }
 
     private BookingResponseDTO mapToResponseDTO(Booking booking) {
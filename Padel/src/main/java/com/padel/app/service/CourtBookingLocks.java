@@ -0,0 +1,61 @@
+package com.padel.app.service;
+
+import com.padel.app.exception.ResourceBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks por cancha repartidos en un número fijo de franjas (striping): las reservas de una misma
+ * cancha se serializan dentro del proceso y las de canchas distintas casi nunca compiten.
+ * El lock se libera al terminar la transacción, después del commit o rollback.
+ */
+@Component
+public class CourtBookingLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+
+    public CourtBookingLocks(@Value("${padel.booking.lock.stripes:64}") int stripes,
+                             @Value("${padel.booking.lock.timeout-ms:2000}") long timeoutMs) {
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = timeoutMs;
+    }
+
+    // Toma el lock de la cancha hasta que finalice la transacción actual
+    public void lockUntilTransactionEnds(Long courtId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("El lock de cancha requiere una transacción activa.");
+        }
+
+        ReentrantLock lock = stripeFor(courtId);
+        try {
+            if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ResourceBusyException("La cancha está siendo reservada por otro usuario, intenta nuevamente.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceBusyException("Reserva interrumpida, intenta nuevamente.");
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private ReentrantLock stripeFor(Long courtId) {
+        int hash = Long.hashCode(courtId);
+        hash ^= (hash >>> 16);
+        return stripes[hash & (stripes.length - 1)];
+    }
+}
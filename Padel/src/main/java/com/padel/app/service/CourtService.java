@@ -1,16 +1,25 @@
 package com.padel.app.service;
 
+import com.padel.app.config.CacheConfig;
+import com.padel.app.config.ReplicaRoutingDataSource;
+import com.padel.app.dto.common.ResourceVersion;
 import com.padel.app.dto.court.CourtDTO;
 import com.padel.app.dto.court.CourtResponseDTO;
-import com.padel.app.model.Booking;
 import com.padel.app.model.Court;
 import com.padel.app.model.User;
 import com.padel.app.repository.BookingRepository;
 import com.padel.app.repository.CourtRepository;
 import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import com.padel.app.security.CurrentUser;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
@@ -20,44 +29,62 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
+@Timed("padel.service")
 public class CourtService {
 
     private static final Logger log = LoggerFactory.getLogger(CourtService.class);
     private final CourtRepository courtRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final CurrentUser currentUser;
 
-    public CourtService(CourtRepository courtRepository, UserRepository userRepository, BookingRepository bookingRepository) {
+    public CourtService(CourtRepository courtRepository, UserRepository userRepository, BookingRepository bookingRepository,
+                        BookingIntervalIndex bookingIntervalIndex, CurrentUser currentUser) {
         this.courtRepository = courtRepository;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.currentUser = currentUser;
     }
 
+    // Catálogo público: se lee de la caché; en un fallo, una sola consulta con el owner en el JOIN
+    // Los fallos de caché leen del primario: tras una invalidación, una réplica atrasada volvería a
+    // llenar la caché (y los ETag) con el catálogo viejo hasta el próximo vencimiento. Con la caché,
+    // el primario casi no recibe estas lecturas.
+    @Cacheable(cacheNames = CacheConfig.COURTS, key = "'all'")
     public List<CourtResponseDTO> getAllCourts() {
         log.info("Obteniendo todas las canchas");
-        return courtRepository.findAll()
-                .stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+        return ReplicaRoutingDataSource.readFromPrimary(courtRepository::findAllResponses);
     }
 
+    @Cacheable(cacheNames = CacheConfig.COURT, key = "#id")
     public CourtResponseDTO getCourtById(Long id) {
-        Court court = courtRepository.findById(id)
+        return ReplicaRoutingDataSource.readFromPrimary(() -> courtRepository.findResponseById(id))
                 .orElseThrow(() -> new EntityNotFoundException("La cancha con ID " + id + " no existe."));
-        return mapToResponseDTO(court);
+    }
+
+    // Versiones para GET condicional; se invalidan junto con el catálogo
+    @Cacheable(cacheNames = CacheConfig.COURTS, key = "'version'")
+    public ResourceVersion getCatalogVersion() {
+        return ReplicaRoutingDataSource.readFromPrimary(courtRepository::findCatalogVersion);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.COURT, key = "'version:' + #id")
+    public ResourceVersion getCourtVersion(Long id) {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> courtRepository.findVersionById(id));
     }
 
     // === Crear cancha ===
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.COURTS, allEntries = true)
     public CourtResponseDTO createCourt(CourtDTO dto, Authentication auth) {
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
         // Solo OWNER o ADMIN pueden crear
-        if (authUser.getRole() == User.Role.USER) {
+        if (authUser.hasRole(User.Role.USER)) {
             throw new AccessDeniedException("No tienes permiso para crear una cancha.");
         }
 
@@ -66,7 +93,7 @@ public class CourtService {
 
         Court court = new Court(
                 null,
-                authUser, // 🔥 el dueño será el usuario autenticado
+                userRepository.getReferenceById(authUser.getIdUser()), // 🔥 el dueño será el usuario autenticado
                 dto.nameCourt(),
                 dto.direction(),
                 dto.lat(),
@@ -83,9 +110,15 @@ public class CourtService {
 
     //Modificación Parcial
     @Transactional
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.COURT, key = "#id"),
+            evict = {
+                    @CacheEvict(cacheNames = CacheConfig.COURT, key = "'version:' + #id"),
+                    @CacheEvict(cacheNames = CacheConfig.COURTS, allEntries = true)
+            }
+    )
     public CourtResponseDTO updateCourtPartialIfAllowed(Long id, Map<String, Object> updates, Authentication auth) {
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
         Court court = courtRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Cancha no encontrada"));
@@ -113,9 +146,15 @@ public class CourtService {
 
     // === Actualizar cancha ===
     @Transactional
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.COURT, key = "#id"),
+            evict = {
+                    @CacheEvict(cacheNames = CacheConfig.COURT, key = "'version:' + #id"),
+                    @CacheEvict(cacheNames = CacheConfig.COURTS, allEntries = true)
+            }
+    )
     public CourtResponseDTO updateCourtIfAllowed(Long id, CourtDTO dto, Authentication auth) {
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
         Court court = courtRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Cancha no encontrada"));
@@ -138,9 +177,13 @@ public class CourtService {
 
     // === Eliminar cancha ===
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURT, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.COURT, key = "'version:' + #id"),
+            @CacheEvict(cacheNames = CacheConfig.COURTS, allEntries = true)
+    })
     public void deleteCourtIfAllowed(Long id, Authentication auth) {
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
         Court court = courtRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Cancha no encontrada"));
@@ -155,25 +198,24 @@ public class CourtService {
         log.info("Cancha eliminada por {} - {}", authUser.getEmail(), court.getNameCourt());
     }
 
-    //Disponibilidad de canchas
+    //Disponibilidad de canchas (una sola consulta, sin N+1)
+    @Transactional(readOnly = true)
     public List<CourtResponseDTO> getAvailableCourts(LocalDateTime startTime, LocalDateTime endTime) {
         log.info("Buscando disponibilidad entre {} y {}", startTime, endTime);
 
-        // Traemos todas las canchas
-        List<Court> allCourts = courtRepository.findAll();
-
-        // Filtramos las que no tienen solapamientos
-        List<Court> availableCourts = allCourts.stream()
-                .filter(court -> {
-                    List<Booking> overlaps = bookingRepository.findOverlappingBookings(
-                            court.getIdCourt(), startTime, endTime);
-                    return overlaps.isEmpty();
-                })
-                .collect(Collectors.toList());
-
-        return availableCourts.stream()
-                .map(this::mapToResponseDTO)
-                .toList();
+        if (!startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("La hora de inicio debe ser anterior a la hora de fin.");
+        }
+
+        // Ventanas futuras: se filtra el catálogo con el índice en memoria, sin consultar reservas
+        if (bookingIntervalIndex.covers(startTime)) {
+            return courtRepository.findAllResponses()
+                    .stream()
+                    .filter(court -> bookingIntervalIndex.isFree(court.idCourt(), startTime, endTime))
+                    .toList();
+        }
+
+        return courtRepository.findAvailableCourts(startTime, endTime);
     }
 
     private CourtResponseDTO mapToResponseDTO(Court court) {
@@ -189,8 +231,8 @@ public class CourtService {
         );
     }
 
-    private void validateOwnershipOrAdmin(User authUser, Court court) {
-        if (authUser.getRole() == User.Role.OWNER &&
+    private void validateOwnershipOrAdmin(AuthenticatedUser authUser, Court court) {
+        if (authUser.hasRole(User.Role.OWNER) &&
                 !court.getOwner().getIdUser().equals(authUser.getIdUser())) {
             throw new AccessDeniedException("No tienes permiso para modificar esta cancha.");
         }
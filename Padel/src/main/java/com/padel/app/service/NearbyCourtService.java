@@ -0,0 +1,182 @@
+package com.padel.app.service;
+
+import com.padel.app.dto.booking.BookingSlotDTO;
+import com.padel.app.dto.court.CourtResponseDTO;
+import com.padel.app.dto.court.NearbyCourtDTO;
+import com.padel.app.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda de canchas cercanas con un índice espacial en memoria: una grilla de celdas de
+ * lat/lng fijas. El índice se arma a partir del catálogo en caché y se reconstruye cuando el
+ * catálogo cambia (las escrituras de canchas invalidan esa caché), sin hooks propios.
+ */
+@Service
+public class NearbyCourtService {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+    static final double MAX_RADIUS_KM = 50;
+    static final int MAX_LIMIT = 100;
+
+    private final CourtService courtService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingRepository bookingRepository;
+    private final double cellDegrees;
+
+    private volatile Grid grid;
+
+    public NearbyCourtService(CourtService courtService, BookingIntervalIndex bookingIntervalIndex,
+                              BookingRepository bookingRepository,
+                              @Value("${padel.courts.spatial.cell-degrees:0.05}") double cellDegrees) {
+        this.courtService = courtService;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.bookingRepository = bookingRepository;
+        this.cellDegrees = cellDegrees;
+    }
+
+    // Canchas a menos de radiusKm ordenadas por distancia; con ventana, solo las libres en ella
+    public List<NearbyCourtDTO> findNearby(double lat, double lng, double radiusKm, int limit,
+                                           LocalDateTime startTime, LocalDateTime endTime) {
+        validate(lat, lng, radiusKm, limit, startTime, endTime);
+
+        List<NearbyCourtDTO> candidates = currentGrid().search(lat, lng, radiusKm);
+        if (startTime != null) {
+            candidates = onlyFree(candidates, startTime, endTime);
+        }
+        return candidates.size() > limit ? candidates.subList(0, limit) : candidates;
+    }
+
+    private List<NearbyCourtDTO> onlyFree(List<NearbyCourtDTO> candidates, LocalDateTime start, LocalDateTime end) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        // Ventanas futuras: índice de reservas en memoria; si no, una sola consulta para todas las candidatas
+        if (bookingIntervalIndex.covers(start)) {
+            return candidates.stream()
+                    .filter(c -> bookingIntervalIndex.isFree(c.court().idCourt(), start, end))
+                    .toList();
+        }
+        Set<Long> ids = candidates.stream().map(c -> c.court().idCourt()).collect(Collectors.toSet());
+        Set<Long> busy = bookingRepository.findBookedSlotsBetween(ids, start, end).stream()
+                .map(BookingSlotDTO::idCourt)
+                .collect(Collectors.toSet());
+        return candidates.stream()
+                .filter(c -> !busy.contains(c.court().idCourt()))
+                .toList();
+    }
+
+    private Grid currentGrid() {
+        // Con caché, el catálogo es la misma instancia hasta la próxima invalidación
+        List<CourtResponseDTO> catalog = courtService.getAllCourts();
+        Grid current = grid;
+        if (current == null || current.source != catalog) {
+            current = new Grid(catalog, cellDegrees);
+            grid = current;
+        }
+        return current;
+    }
+
+    private static void validate(double lat, double lng, double radiusKm, int limit,
+                                 LocalDateTime startTime, LocalDateTime endTime) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new IllegalArgumentException("Coordenadas inválidas.");
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new IllegalArgumentException("El radio debe estar entre 0 y " + (int) MAX_RADIUS_KM + " km.");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_LIMIT + ".");
+        }
+        if ((startTime == null) != (endTime == null)) {
+            throw new IllegalArgumentException("Indica startTime y endTime juntos.");
+        }
+        if (startTime != null && !startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("La hora de inicio debe ser anterior a la hora de fin.");
+        }
+    }
+
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /** Snapshot inmutable: celda (lat, lng) -> canchas con coordenadas dentro de ella. */
+    static final class Grid {
+
+        private final List<CourtResponseDTO> source;
+        private final double cellDegrees;
+        private final Map<Long, List<CourtResponseDTO>> cells = new HashMap<>();
+
+        Grid(List<CourtResponseDTO> source, double cellDegrees) {
+            this.source = source;
+            this.cellDegrees = cellDegrees;
+            for (CourtResponseDTO court : source) {
+                if (court.lat() != null && court.lng() != null) {
+                    cells.computeIfAbsent(key(cell(court.lat()), cell(court.lng())), k -> new ArrayList<>()).add(court);
+                }
+            }
+        }
+
+        List<NearbyCourtDTO> search(double lat, double lng, double radiusKm) {
+            // Caja que contiene el círculo; cerca de los polos el ancho en longitud se abre a todo el rango
+            double dLat = radiusKm / KM_PER_DEGREE_LAT;
+            double cosLat = Math.cos(Math.toRadians(lat));
+            double dLng = cosLat < 1e-6 ? 180 : Math.min(180, radiusKm / (KM_PER_DEGREE_LAT * cosLat));
+
+            long fromLng = cell(lng - dLng);
+            long toLng = cell(lng + dLng);
+            long cellsAround = Math.round(360 / cellDegrees);
+            if (toLng - fromLng + 1 >= cellsAround) {
+                fromLng = cell(-180);
+                toLng = fromLng + cellsAround - 1;
+            }
+
+            List<NearbyCourtDTO> found = new ArrayList<>();
+            for (long latCell = cell(lat - dLat); latCell <= cell(lat + dLat); latCell++) {
+                for (long lngCell = fromLng; lngCell <= toLng; lngCell++) {
+                    List<CourtResponseDTO> inCell = cells.get(key(latCell, wrapLng(lngCell)));
+                    if (inCell == null) {
+                        continue;
+                    }
+                    for (CourtResponseDTO court : inCell) {
+                        double distance = distanceKm(lat, lng, court.lat(), court.lng());
+                        if (distance <= radiusKm) {
+                            found.add(new NearbyCourtDTO(court, distance));
+                        }
+                    }
+                }
+            }
+            found.sort(Comparator.comparingDouble(NearbyCourtDTO::distanceKm));
+            return found;
+        }
+
+        private long cell(double degrees) {
+            return (long) Math.floor(degrees / cellDegrees);
+        }
+
+        // Las celdas de longitud dan la vuelta en el antimeridiano
+        private long wrapLng(long lngCell) {
+            long cellsAround = Math.round(360 / cellDegrees);
+            long min = cell(-180);
+            return Math.floorMod(lngCell - min, cellsAround) + min;
+        }
+
+        private static long key(long latCell, long lngCell) {
+            return (latCell << 32) ^ (lngCell & 0xffffffffL);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.padel.app.service;
+
+import com.padel.app.model.Notification;
+import com.padel.app.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Worker del outbox de notificaciones. El scheduler toma lotes vencidos (SELECT ... FOR UPDATE
+ * SKIP LOCKED) y los reparte entre un pool de workers, que envían cada lote por una sola conexión
+ * SMTP. Los fallos se reintentan con backoff exponencial hasta max-attempts.
+ * Tomar un lote adelanta next_attempt_at en lease-ms: si la instancia muere a mitad del envío,
+ * otra lo retoma al vencer el lease.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final NotificationRepository notificationRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transaction;
+    private final AsyncTaskExecutor workers;
+    private final Semaphore freeWorkers;
+
+    private final boolean enabled;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final long leaseMs;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public NotificationDispatcher(NotificationRepository notificationRepository, JavaMailSender mailSender,
+                                  PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                  Environment environment,
+                                  @Value("${padel.notifications.enabled:true}") boolean enabled,
+                                  @Value("${padel.notifications.from}") String from,
+                                  @Value("${padel.notifications.batch-size:50}") int batchSize,
+                                  @Value("${padel.notifications.workers:2}") int workerCount,
+                                  @Value("${padel.notifications.max-attempts:6}") int maxAttempts,
+                                  @Value("${padel.notifications.backoff-base-ms:30000}") long backoffBaseMs,
+                                  @Value("${padel.notifications.backoff-max-ms:3600000}") long backoffMaxMs,
+                                  @Value("${padel.notifications.lease-ms:300000}") long leaseMs) {
+        this.notificationRepository = notificationRepository;
+        this.mailSender = mailSender;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.from = from;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.leaseMs = leaseMs;
+
+        // Con spring.threads.virtual.enabled (Java 21+) cada lote corre en un hilo virtual; el semáforo
+        // sigue limitando los envíos simultáneos a workers
+        this.workers = Threading.VIRTUAL.isActive(environment) ? virtualWorkers() : platformWorkers(workerCount);
+        this.freeWorkers = new Semaphore(workerCount);
+
+        Gauge.builder("padel.notifications.pending", pending, AtomicLong::get)
+                .description("Notificaciones pendientes en el outbox")
+                .register(meterRegistry);
+        this.sent = Counter.builder("padel.notifications.sent").register(meterRegistry);
+        this.retried = Counter.builder("padel.notifications.retried").register(meterRegistry);
+        this.failed = Counter.builder("padel.notifications.failed").register(meterRegistry);
+    }
+
+    private static AsyncTaskExecutor platformWorkers(int workerCount) {
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(workerCount);
+        pool.setMaxPoolSize(workerCount);
+        pool.setThreadNamePrefix("notifications-");
+        pool.initialize();
+        return pool;
+    }
+
+    private static AsyncTaskExecutor virtualWorkers() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("notifications-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (workers instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (workers instanceof SimpleAsyncTaskExecutor executor) {
+            executor.close();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${padel.notifications.poll-interval-ms:2000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        pending.set(notificationRepository.countByStatus(Notification.Status.PENDING));
+
+        // Un lote por worker libre; los workers ocupados siguen con el lote que ya tienen
+        while (freeWorkers.tryAcquire()) {
+            List<Outgoing> batch;
+            try {
+                batch = claimBatch();
+            } catch (RuntimeException e) {
+                freeWorkers.release();
+                throw e;
+            }
+            if (batch.isEmpty()) {
+                freeWorkers.release();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    complete(send(batch));
+                } catch (RuntimeException e) {
+                    log.error("Error procesando un lote de notificaciones; se reintenta al vencer el lease", e);
+                } finally {
+                    freeWorkers.release();
+                }
+            });
+        }
+    }
+
+    private List<Outgoing> claimBatch() {
+        return transaction.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            return notificationRepository.findDueForUpdate(now, Limit.of(batchSize)).stream()
+                    .map(notification -> {
+                        notification.setAttempts(notification.getAttempts() + 1);
+                        notification.setNextAttemptAt(now.plusNanos(leaseMs * 1_000_000));
+                        return new Outgoing(notification.getIdNotification(), notification.getRecipient(),
+                                notification.getSubject(), notification.getBody());
+                    })
+                    .toList();
+        });
+    }
+
+    // Envía el lote por una sola conexión; devuelve el resultado de cada notificación
+    private Map<Long, Result> send(List<Outgoing> batch) {
+        Map<Long, Result> results = new HashMap<>();
+        Map<MimeMessage, Long> messages = new LinkedHashMap<>();
+        for (Outgoing outgoing : batch) {
+            try {
+                messages.put(toMimeMessage(outgoing), outgoing.id());
+            } catch (MessagingException | MailException e) {
+                // Dirección o contenido inválido: reintentar no lo va a arreglar
+                results.put(outgoing.id(), new Result("Mensaje inválido: " + e.getMessage(), true));
+            }
+        }
+        if (messages.isEmpty()) {
+            return results;
+        }
+
+        messages.values().forEach(id -> results.put(id, Result.SENT));
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, error) ->
+                    results.put(messages.get((MimeMessage) message), Result.retry(error)));
+            if (e.getFailedMessages().isEmpty()) {
+                messages.values().forEach(id -> results.put(id, Result.retry(e)));
+            }
+        } catch (MailException e) {
+            messages.values().forEach(id -> results.put(id, Result.retry(e)));
+        }
+        return results;
+    }
+
+    private MimeMessage toMimeMessage(Outgoing outgoing) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(from);
+        helper.setTo(outgoing.recipient());
+        helper.setSubject(outgoing.subject());
+        helper.setText(outgoing.body());
+        return message;
+    }
+
+    private void complete(Map<Long, Result> results) {
+        transaction.executeWithoutResult(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (Notification notification : notificationRepository.findAllById(results.keySet())) {
+                Result result = results.get(notification.getIdNotification());
+                if (result.error() == null) {
+                    notification.setStatus(Notification.Status.SENT);
+                    notification.setSentAt(now);
+                    notification.setLastError(null);
+                    sent.increment();
+                } else if (result.permanent() || notification.getAttempts() >= maxAttempts) {
+                    notification.setStatus(Notification.Status.FAILED);
+                    notification.setLastError(truncate(result.error()));
+                    failed.increment();
+                    log.warn("Notificación {} descartada tras {} intentos: {}",
+                            notification.getIdNotification(), notification.getAttempts(), result.error());
+                } else {
+                    notification.setNextAttemptAt(now.plusNanos(backoffMs(notification.getAttempts()) * 1_000_000));
+                    notification.setLastError(truncate(result.error()));
+                    retried.increment();
+                }
+            }
+        });
+    }
+
+    // base * 2^(intentos-1), con tope y ±20% de jitter para no reintentar todo a la vez
+    long backoffMs(int attempts) {
+        long delay = backoffBaseMs << Math.min(attempts - 1, 30);
+        delay = delay <= 0 ? backoffMaxMs : Math.min(delay, backoffMaxMs);
+        return (long) (delay * (0.8 + 0.4 * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= 500 ? error : error.substring(0, 500);
+    }
+
+    private record Outgoing(Long id, String recipient, String subject, String body) {
+    }
+
+    private record Result(String error, boolean permanent) {
+        static final Result SENT = new Result(null, false);
+
+        static Result retry(Exception e) {
+            return new Result(String.valueOf(e.getMessage()), false);
+        }
+    }
+}
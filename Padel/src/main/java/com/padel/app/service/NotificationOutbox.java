@@ -0,0 +1,61 @@
+package com.padel.app.service;
+
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.Notification;
+import com.padel.app.repository.NotificationRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Alta de notificaciones en el outbox. Se llama dentro de la transacción de la reserva: si la
+ * reserva hace rollback la notificación tampoco existe, y el request nunca espera al servidor SMTP.
+ */
+@Component
+public class NotificationOutbox {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final NotificationRepository notificationRepository;
+
+    public NotificationOutbox(NotificationRepository notificationRepository) {
+        this.notificationRepository = notificationRepository;
+    }
+
+    public void bookingConfirmed(Booking booking, String recipient) {
+        String court = booking.getCourt().getNameCourt();
+        notificationRepository.save(new Notification(
+                Notification.Type.BOOKING_CONFIRMED,
+                recipient,
+                "Reserva confirmada - " + court,
+                "Tu reserva #%d en %s quedó confirmada: %s a %s.".formatted(booking.getIdBooking(), court,
+                        booking.getStartTime().format(FORMAT), booking.getEndTime().format(FORMAT))));
+    }
+
+    public void bookingCancelled(Booking booking, String recipient) {
+        String court = booking.getCourt().getNameCourt();
+        notificationRepository.save(new Notification(
+                Notification.Type.BOOKING_CANCELLED,
+                recipient,
+                "Reserva cancelada - " + court,
+                "Tu reserva #%d en %s del %s fue cancelada.".formatted(booking.getIdBooking(), court,
+                        booking.getStartTime().format(FORMAT))));
+    }
+
+    // Un solo email por serie con todas las fechas confirmadas
+    public void seriesConfirmed(Court court, List<Booking> bookings, String recipient) {
+        String dates = bookings.stream()
+                .map(b -> "- #%d: %s a %s".formatted(b.getIdBooking(), b.getStartTime().format(FORMAT),
+                        b.getEndTime().format(FORMAT)))
+                .collect(Collectors.joining("\n"));
+        notificationRepository.save(new Notification(
+                Notification.Type.BOOKING_SERIES_CONFIRMED,
+                recipient,
+                "Serie de reservas confirmada - " + court.getNameCourt(),
+                "Tus %d reservas en %s quedaron confirmadas:\n%s".formatted(bookings.size(),
+                        court.getNameCourt(), dates)));
+    }
+}
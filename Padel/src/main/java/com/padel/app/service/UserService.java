@@ -1,13 +1,18 @@
 package com.padel.app.service;
 
+import com.padel.app.config.CacheConfig;
 import com.padel.app.dto.user.UserDTO;
 import com.padel.app.dto.user.UserResponseDTO;
 import com.padel.app.dto.user.UserRoleUpdateDTO;
 import com.padel.app.model.User;
 import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import com.padel.app.security.CurrentUser;
+import com.padel.app.security.TokenRevocationCache;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -25,21 +30,27 @@ public class UserService {
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final CurrentUser currentUser;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       TokenRevocationCache tokenRevocationCache, CurrentUser currentUser) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationCache = tokenRevocationCache;
+        this.currentUser = currentUser;
     }
 
     // === Obtener todos los usuarios ===
+    // Listados de administración: salen de la réplica; quien acaba de modificar un usuario lee del primario
+    @Transactional(readOnly = true)
     public List<UserResponseDTO> getAllUsers(Authentication auth) {
         log.info("Obteniendo todos los usuarios");
 
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
         // Solo OWNER o ADMIN pueden ver todos los usuarios
-        if (authUser.getRole() == User.Role.USER) {
+        if (authUser.hasRole(User.Role.USER)) {
             throw new AccessDeniedException("No tienes permiso para realizar esta acción.");
         }
 
@@ -50,15 +61,15 @@ public class UserService {
     }
 
     // === Obtener usuario por ID ===
+    @Transactional(readOnly = true)
     public UserResponseDTO getUserById(Long id, Authentication auth) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("El usuario con ID " + id + " no existe."));
 
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
         // Solo OWNER o ADMIN pueden ver todos los usuarios
-        if (authUser.getRole() == User.Role.USER) {
+        if (authUser.hasRole(User.Role.USER)) {
             throw new AccessDeniedException("No tienes permiso para realizar esta acción.");
         }
 
@@ -70,11 +81,10 @@ public class UserService {
     public UserResponseDTO createUser(UserDTO dto, Authentication auth) {
         validateEmail(dto.email());
 
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
         // Solo OWNER o ADMIN pueden ver todos los usuarios
-        if (authUser.getRole() == User.Role.USER) {
+        if (authUser.hasRole(User.Role.USER)) {
             throw new AccessDeniedException("No tienes permiso para realizar esta acción.");
         }
 
@@ -100,36 +110,39 @@ public class UserService {
     // === Eliminar usuario ===
     @Transactional
     public void deleteUser(Long id, Authentication auth) {
-        if (!userRepository.existsById(id)) {
-            throw new EntityNotFoundException("El usuario con ID " + id + " no existe.");
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("El usuario con ID " + id + " no existe."));
 
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
         // Solo OWNER o ADMIN pueden ver todos los usuarios
-        if (authUser.getRole() == User.Role.USER) {
+        if (authUser.hasRole(User.Role.USER)) {
             throw new AccessDeniedException("No tienes permiso para realizar esta acción.");
         }
 
         userRepository.deleteById(id);
+        tokenRevocationCache.revoke(user.getEmail());
         log.info("Usuario eliminado: id={}", id);
     }
 
     //Modificar usuario completo
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.COURTS, CacheConfig.COURT}, allEntries = true) // el catálogo muestra el nombre del dueño
     public UserResponseDTO updateUser(Long id, UserDTO dto, Authentication auth) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
         // Solo OWNER o ADMIN pueden ver todos los usuarios
-        if (authUser.getRole() == User.Role.USER) {
+        if (authUser.hasRole(User.Role.USER)) {
             throw new AccessDeniedException("No tienes permiso para realizar esta acción.");
         }
 
+        if (!user.getEmail().equals(dto.email())) {
+            tokenRevocationCache.revoke(user.getEmail());
+        }
+
         user.setNameUser(dto.nameUser());
         user.setEmail(dto.email());
         user.setPassword(dto.password()); // ⚠️ luego encriptamos
@@ -140,22 +153,25 @@ public class UserService {
 
     //Modificar usuario parcialmente
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.COURTS, CacheConfig.COURT}, allEntries = true) // el catálogo muestra el nombre del dueño
     public UserResponseDTO updateUserPartial(Long id, Map<String, Object> updates, Authentication auth) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
         // Solo OWNER o ADMIN pueden ver todos los usuarios
-        if (authUser.getRole() == User.Role.USER) {
+        if (authUser.hasRole(User.Role.USER)) {
             throw new AccessDeniedException("No tienes permiso para realizar esta acción.");
         }
         
         updates.forEach((key, value) -> {
             switch (key) {
                 case "nombre" -> user.setNameUser((String) value);
-                case "email" -> user.setEmail((String) value);
+                case "email" -> {
+                    tokenRevocationCache.revoke(user.getEmail());
+                    user.setEmail((String) value);
+                }
                 case "password" -> user.setPassword((String) value);
                 case "fotoUrl" -> user.setPhotoUrl((String) value);
                 default -> throw new RuntimeException("Campo no permitido: " + key);
@@ -172,16 +188,18 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado."));
 
-        User authUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario autenticado no encontrado"));
+        AuthenticatedUser authUser = currentUser.from(auth);
 
         // Solo OWNER o ADMIN pueden ver todos los usuarios
-        if (authUser.getRole() == User.Role.USER) {
+        if (authUser.hasRole(User.Role.USER)) {
             throw new AccessDeniedException("No tienes permiso para realizar esta acción.");
         }
 
         user.setRole(dto.role());
         userRepository.save(user);
+
+        // Los tokens ya emitidos llevan el rol anterior: se validan contra la base hasta que expiren
+        tokenRevocationCache.revoke(user.getEmail());
     }
 
     // === Validaciones auxiliares ===
@@ -0,0 +1,12 @@
+-- V3__booking_composite_indexes.sql: índices compuestos para las consultas calientes de reservas
+
+-- Solapamiento por cancha (existsByCourtAndTimeRange, findOverlappingBookings y el NOT EXISTS
+-- de disponibilidad): igualdad en id_court y status, rango en start_time y end_time resuelto
+-- dentro del índice sin leer la fila
+CREATE INDEX idx_booking_court_status_time ON bookings (id_court, status, start_time, end_time);
+
+-- Reservas de un usuario filtradas por estado y ordenadas por fecha (my-bookings)
+CREATE INDEX idx_booking_user_status_start ON bookings (created_by, status, start_time);
+
+-- Queda cubierto por el prefijo de idx_booking_court_status_time (también para la FK)
+DROP INDEX idx_booking_court ON bookings;
@@ -0,0 +1,7 @@
+-- V4__updated_at_microseconds.sql: updated_at con precisión de microsegundos
+-- Los ETag de GET condicional se calculan a partir de updated_at; con precisión de segundos
+-- dos cambios dentro del mismo segundo darían el mismo ETag
+
+ALTER TABLE users MODIFY updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+ALTER TABLE courts MODIFY updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+ALTER TABLE bookings MODIFY updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
@@ -0,0 +1,18 @@
+-- V5__notification_outbox.sql: outbox de notificaciones por email
+-- Las notificaciones se insertan en la misma transacción que la reserva y un worker en segundo
+-- plano las envía; next_attempt_at sirve tanto para los reintentos como de lease del envío en curso
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+  id_notification BIGINT AUTO_INCREMENT PRIMARY KEY,
+  type VARCHAR(30) NOT NULL,
+  recipient VARCHAR(100) NOT NULL,
+  subject VARCHAR(200) NOT NULL,
+  body TEXT NOT NULL,
+  status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_at DATETIME(6) NOT NULL,
+  last_error VARCHAR(500) NULL,
+  created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+  sent_at DATETIME(6) NULL,
+  INDEX idx_outbox_status_next (status, next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
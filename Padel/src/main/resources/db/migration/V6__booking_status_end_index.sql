@@ -0,0 +1,3 @@
+-- V6__booking_status_end_index.sql: índice para el job que pasa a COMPLETED las reservas terminadas
+-- (status = 'BOOKED' AND end_time <= ahora, ordenado por end_time)
+CREATE INDEX idx_booking_status_end ON bookings (status, end_time);
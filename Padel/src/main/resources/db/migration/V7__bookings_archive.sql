@@ -0,0 +1,18 @@
+-- V7__bookings_archive.sql: reservas frías (terminadas hace más del horizonte configurado)
+-- Mismas columnas que bookings; el id se conserva, así que un id nunca está en las dos tablas
+CREATE TABLE IF NOT EXISTS bookings_archive (
+  id_booking BIGINT PRIMARY KEY,
+  id_court BIGINT NOT NULL,
+  created_by BIGINT NOT NULL,
+  start_time DATETIME NOT NULL,
+  end_time DATETIME NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  created_at TIMESTAMP NOT NULL,
+  updated_at TIMESTAMP(6) NOT NULL,
+  archived_at TIMESTAMP(6) NOT NULL,
+  CONSTRAINT fk_booking_archive_court FOREIGN KEY (id_court) REFERENCES courts(id_court) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT fk_booking_archive_user FOREIGN KEY (created_by) REFERENCES users(id_user) ON DELETE RESTRICT ON UPDATE CASCADE,
+  INDEX idx_booking_archive_user_start (created_by, start_time),
+  INDEX idx_booking_archive_court_start (id_court, start_time),
+  INDEX idx_booking_archive_start (start_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
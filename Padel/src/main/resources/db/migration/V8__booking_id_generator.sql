@@ -0,0 +1,13 @@
+-- V8__booking_id_generator.sql: ids de reservas por bloques desde una tabla de generadores.
+-- Con IDENTITY Hibernate necesita el id de cada fila al insertarla y no puede agrupar INSERT en batch.
+CREATE TABLE IF NOT EXISTS id_generators (
+  name VARCHAR(50) NOT NULL PRIMARY KEY,
+  next_val BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- El optimizador pooled usa el valor guardado como tope del bloque (next_val - 49 .. next_val):
+-- se arranca un bloque completo por encima del mayor id existente, contando el archivo
+INSERT INTO id_generators (name, next_val)
+SELECT 'bookings', GREATEST(
+    COALESCE((SELECT MAX(id_booking) FROM bookings), 0),
+    COALESCE((SELECT MAX(id_booking) FROM bookings_archive), 0)) + 51;
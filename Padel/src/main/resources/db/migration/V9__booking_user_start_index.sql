@@ -0,0 +1,10 @@
+-- V9__booking_user_start_index.sql: índice de my-bookings alineado con la consulta que se ejecuta
+-- BookingRepository.findResponsesPage filtra por created_by y ordena por (start_time, id_booking)
+-- DESC; el estado es un filtro opcional que my-bookings casi nunca manda. Con (created_by, status,
+-- start_time) el orden solo servía con un estado fijo: sin él se leían todas las reservas del usuario
+-- y se ordenaban. Con (created_by, start_time) se recorre hacia atrás y se corta en el LIMIT (InnoDB
+-- agrega id_booking al final del índice). Es el mismo índice que ya tiene bookings_archive.
+CREATE INDEX idx_booking_user_start ON bookings (created_by, start_time);
+
+-- El nuevo índice también cubre la FK de created_by
+DROP INDEX idx_booking_user_status_start ON bookings;
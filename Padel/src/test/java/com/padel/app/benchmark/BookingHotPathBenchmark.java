@@ -0,0 +1,194 @@
+package com.padel.app.benchmark;
+
+import com.padel.app.PadelApplication;
+import com.padel.app.dto.booking.BookingDTO;
+import com.padel.app.dto.booking.BookingPageDTO;
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.dto.court.CourtResponseDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import com.padel.app.security.JwtAuthenticationFilter;
+import com.padel.app.security.JwtService;
+import com.padel.app.service.BookingIntervalIndex;
+import com.padel.app.service.BookingService;
+import com.padel.app.service.CourtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rutas calientes medidas contra la aplicación completa sobre la H2 embebida de los tests
+ * (src/test/resources/application.properties), sembrada con {@value #COURTS} canchas y
+ * {@value #DAYS} días de reservas: rechazo de una reserva en conflicto, disponibilidad por el
+ * índice en memoria y por la base, mapeo a DTO, emisión de JWT y el filtro de autenticación completo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingHotPathBenchmark {
+
+    private static final int COURTS = 100;
+    private static final int DAYS = 7;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private CourtService courtService;
+    private BookingRepository bookingRepository;
+    private JwtService jwtService;
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    private User player;
+    private Authentication admin;
+    private Authentication playerAuth;
+    private String token;
+    private Long courtId;
+    private Long bookingId;
+    private BookingDTO conflicting;
+    private LocalDateTime futureStart;
+    private LocalDateTime pastStart;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(PadelApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        courtService = context.getBean(CourtService.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        jwtService = context.getBean(JwtService.class);
+        jwtAuthenticationFilter = context.getBean(JwtAuthenticationFilter.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User owner = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        player = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        admin = authentication(owner);
+        playerAuth = authentication(player);
+        token = jwtService.generateToken(player);
+
+        // Reservas de 08:00 a 22:00 cada dos horas, la mitad de los días en el pasado
+        CourtRepository courtRepository = context.getBean(CourtRepository.class);
+        LocalDate today = LocalDate.now();
+        List<Booking> bookings = new ArrayList<>();
+        for (int c = 0; c < COURTS; c++) {
+            Court court = courtRepository.save(new Court(null, owner, "Bench " + c, "Calle " + c, null, null,
+                    BigDecimal.TEN, null));
+            for (int d = -DAYS; d < DAYS; d++) {
+                for (int hour = 8; hour < 22; hour += 2) {
+                    LocalDateTime start = today.plusDays(d).atTime(hour, 0);
+                    bookings.add(new Booking(court, player, start, start.plusHours(1)));
+                }
+            }
+        }
+        bookingRepository.saveAll(bookings);
+        // Las reservas se cargaron sin pasar por BookingService: se recarga el índice en memoria
+        context.getBean(BookingIntervalIndex.class).warmUp();
+
+        Booking future = bookings.get(bookings.size() - 1);
+        courtId = future.getCourt().getIdCourt();
+        bookingId = future.getIdBooking();
+        conflicting = new BookingDTO(courtId, future.getStartTime().plusMinutes(30), future.getEndTime().plusMinutes(30));
+        futureStart = today.plusDays(1).atTime(LocalTime.of(9, 0));
+        pastStart = today.minusDays(1).atTime(LocalTime.of(9, 0));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Rechazo de una reserva que se superpone con otra (lo detecta el índice y lo confirma una consulta, sin locks)
+    @Benchmark
+    public Object createBookingConflict() {
+        SecurityContextHolder.getContext().setAuthentication(playerAuth);
+        try {
+            return bookingService.createBooking(conflicting);
+        } catch (IllegalArgumentException e) {
+            return e;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // La verificación de solapamiento que hace la base dentro de la transacción de reserva
+    @Benchmark
+    public boolean overlapCheckInDatabase() {
+        return bookingRepository.existsByCourtAndTimeRange(courtId, conflicting.startTime(), conflicting.endTime());
+    }
+
+    @Benchmark
+    public List<CourtResponseDTO> availableCourtsFromIndex() {
+        return courtService.getAvailableCourts(futureStart, futureStart.plusMinutes(90));
+    }
+
+    @Benchmark
+    public List<CourtResponseDTO> availableCourtsFromDatabase() {
+        return courtService.getAvailableCourts(pastStart, pastStart.plusMinutes(90));
+    }
+
+    // Entidad con cancha y usuario mapeada a DTO
+    @Benchmark
+    public BookingResponseDTO bookingByIdMappedToDto() {
+        return bookingService.getBookingById(bookingId, admin).orElseThrow();
+    }
+
+    // Página de 20 proyectada a DTO en la consulta
+    @Benchmark
+    public BookingPageDTO bookingPageProjection() {
+        return bookingService.getBookings(admin, courtId, null, null, null, null, null, null, 20);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(player);
+    }
+
+    // Petición autenticada completa a través del filtro (claims en caché tras la primera vez)
+    @Benchmark
+    public Object jwtFilterEndToEnd() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings/my-bookings");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static Authentication authentication(User user) {
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
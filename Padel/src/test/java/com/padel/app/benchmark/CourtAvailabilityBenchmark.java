@@ -0,0 +1,126 @@
+package com.padel.app.benchmark;
+
+import com.padel.app.PadelApplication;
+import com.padel.app.dto.court.CourtResponseDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.service.BookingIntervalIndex;
+import com.padel.app.service.CourtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de la búsqueda de disponibilidad según la cantidad de canchas, con la mitad ocupadas en
+ * el rango: la versión anterior (findAll + una consulta de solapamiento por cancha), la consulta
+ * única NOT EXISTS y el filtrado por el índice en memoria. La cantidad de sentencias de cada una
+ * la verifica service.CourtAvailabilityQueryCountTest.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CourtAvailabilityBenchmark {
+
+    @Param({"10", "100", "300"})
+    public int courts;
+
+    private ConfigurableApplicationContext context;
+    private CourtService courtService;
+    private CourtRepository courtRepository;
+    private BookingRepository bookingRepository;
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> createdCourts = new ArrayList<>();
+    private final List<Long> createdBookings = new ArrayList<>();
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(PadelApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        courtService = context.getBean(CourtService.class);
+        courtRepository = context.getBean(CourtRepository.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        BookingIntervalIndex bookingIntervalIndex = context.getBean(BookingIntervalIndex.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User owner = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        User player = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        start = LocalDate.now().plusDays(1).atTime(19, 0);
+        end = start.plusMinutes(90);
+
+        for (int i = 0; i < courts; i++) {
+            Court court = courtRepository.save(new Court(null, owner, "Bench " + i, "Calle " + i,
+                    -34.6, -58.4, BigDecimal.valueOf(1000), null));
+            createdCourts.add(court.getIdCourt());
+            if (i % 2 == 0) {
+                Booking booking = bookingRepository.save(new Booking(court, player, start, end));
+                createdBookings.add(booking.getIdBooking());
+                bookingIntervalIndex.track(booking);
+            }
+        }
+    }
+
+    // La H2 en memoria sobrevive al contexto: se borra lo sembrado antes del siguiente @Param
+    @TearDown
+    public void tearDown() {
+        bookingRepository.deleteAllByIdInBatch(createdBookings);
+        courtRepository.deleteAllByIdInBatch(createdCourts);
+        context.close();
+    }
+
+    @Benchmark
+    public List<CourtResponseDTO> legacyQueryPerCourt() {
+        return transactionTemplate.execute(s -> courtRepository.findAll().stream()
+                .filter(court -> bookingRepository.findOverlappingBookings(court.getIdCourt(), start, end).isEmpty())
+                .map(court -> new CourtResponseDTO(
+                        court.getIdCourt(),
+                        court.getNameCourt(),
+                        court.getDirection(),
+                        court.getLat(),
+                        court.getLng(),
+                        court.getPrice(),
+                        court.getOwner().getIdUser(),
+                        court.getOwner().getNameUser()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<CourtResponseDTO> singleNotExistsQuery() {
+        return courtRepository.findAvailableCourts(start, end);
+    }
+
+    @Benchmark
+    public List<CourtResponseDTO> filteredByIndex() {
+        return courtService.getAvailableCourts(start, end);
+    }
+}
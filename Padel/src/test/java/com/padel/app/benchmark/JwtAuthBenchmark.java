@@ -0,0 +1,89 @@
+package com.padel.app.benchmark;
+
+import com.padel.app.model.User;
+import com.padel.app.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de autenticar una petición con JWT: la ruta anterior del filtro (tres parseos, cada uno
+ * construyendo clave y parser), una verificación completa con clave y parser reutilizados, y la
+ * ruta con claims en caché.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-para-firmar-tokens-hs256-0123456789";
+
+    private JwtService cachedJwtService;
+    private JwtService uncachedJwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedJwtService = jwtService(10_000);
+        uncachedJwtService = jwtService(0);
+
+        User user = new User();
+        user.setEmail("bench@test.local");
+        user.setRole(User.Role.USER);
+        token = cachedJwtService.generateToken(user);
+    }
+
+    // extractUsername + isTokenValid(extractUsername + isTokenExpired), como hacía el filtro
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String username = legacyParse(token).getSubject();
+        return legacyParse(token).getSubject().equals(username)
+                && !legacyParse(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleVerification() {
+        Claims claims = uncachedJwtService.extractClaims(token);
+        return uncachedJwtService.isTokenValid(claims, claims.getSubject());
+    }
+
+    @Benchmark
+    public boolean cachedFilterPath() {
+        Claims claims = cachedJwtService.extractClaims(token);
+        return cachedJwtService.isTokenValid(claims, claims.getSubject());
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static JwtService jwtService(long cacheSize) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(service, "claimsCacheMaxSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+}
@@ -0,0 +1,123 @@
+package com.padel.app.benchmark;
+
+import com.padel.app.PadelApplication;
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import com.padel.app.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Antes y después de la caché de segundo nivel: la misma aplicación con
+ * hibernate.cache.use_second_level_cache en true y en false. Mide las lecturas que la caché
+ * puede ahorrar: el detalle de una reserva visto por el dueño de la cancha, la cancha con su
+ * owner y la búsqueda de usuario por email que hace el login. Rota entre {@value #COURTS}
+ * canchas para no medir siempre la misma fila. Contra la H2 en memoria una consulta no cruza la
+ * red: lo que se ve acá es el costo de CPU; contra MySQL cada acierto ahorra además un viaje.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecondLevelCacheBenchmark {
+
+    private static final int COURTS = 20;
+
+    @Param({"true", "false"})
+    public boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private CourtRepository courtRepository;
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> courtIds = new ArrayList<>();
+    private final List<Long> bookingIds = new ArrayList<>();
+    private Authentication ownerAuth;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(PadelApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache)
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        courtRepository = context.getBean(CourtRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        User owner = userRepository.save(new User(null, "owner-l2@test.local", "x", "Dueño L2", null,
+                User.Role.OWNER, 0, now, now));
+        User player = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        AuthenticatedUser principal = AuthenticatedUser.from(owner);
+        ownerAuth = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+        // Una reserva por cancha, en un día lejano y libre
+        LocalDateTime start = LocalDate.now().plusYears(5).atTime(10, 0);
+        List<Booking> bookings = new ArrayList<>();
+        for (int c = 0; c < COURTS; c++) {
+            Court court = courtRepository.save(new Court(null, owner, "L2 " + c, "Calle " + c, null, null,
+                    BigDecimal.TEN, null));
+            courtIds.add(court.getIdCourt());
+            bookings.add(new Booking(court, player, start, start.plusHours(1)));
+        }
+        context.getBean(BookingRepository.class).saveAll(bookings).forEach(b -> bookingIds.add(b.getIdBooking()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Reserva con cancha y usuario en un JOIN, permisos del dueño y mapeo a DTO
+    @Benchmark
+    public BookingResponseDTO bookingByIdAsOwner() {
+        return bookingService.getBookingById(bookingIds.get((int) (next++ % COURTS)), ownerAuth).orElseThrow();
+    }
+
+    // Cancha por id y el nombre de su owner, que sin caché es una segunda consulta
+    @Benchmark
+    public String courtWithOwner() {
+        Long courtId = courtIds.get((int) (next++ % COURTS));
+        return transactionTemplate.execute(tx -> courtRepository.findById(courtId).orElseThrow().getOwner().getNameUser());
+    }
+
+    @Benchmark
+    public User userByEmail() {
+        return userRepository.findByEmail("maxi@test.local").orElseThrow();
+    }
+}
@@ -0,0 +1,195 @@
+package com.padel.app.config;
+
+import com.padel.app.dto.auth.LoginRequest;
+import com.padel.app.dto.auth.RegisterRequest;
+import com.padel.app.dto.booking.BookingDTO;
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.dto.court.CourtResponseDTO;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import com.padel.app.service.AuthService;
+import com.padel.app.service.BookingIntervalIndex;
+import com.padel.app.service.BookingService;
+import com.padel.app.service.CourtService;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Primario y réplica son dos bases H2 en memoria sin replicación entre ellas: lo que se lee de cada
+ * una muestra a dónde fue la consulta. Las escrituras van al primario, los listados de solo lectura
+ * a la réplica, salvo para el usuario que acaba de escribir (nunca para los anónimos) y para las
+ * lecturas marcadas para el primario: lo que llena la caché del catálogo y las credenciales del login.
+ */
+@SpringBootTest(properties = {
+        "padel.datasource.replica.enabled=true",
+        "padel.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "padel.datasource.replica.username=sa",
+        "padel.datasource.replica.password=",
+        "padel.datasource.replica.read-your-writes-ms=1000"
+})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:padel-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String PRIMARY_URL = "jdbc:h2:mem:padel;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    private static final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+
+    // La réplica necesita el esquema antes de que arranque el contexto
+    static {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+    }
+
+    private static final LocalDateTime START = LocalDateTime.of(2032, 6, 1, 10, 0);
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private CourtService courtService;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long bookingId;
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        replica.update("DELETE FROM courts WHERE name_court = 'Solo en la réplica'");
+        primary.update("DELETE FROM courts WHERE name_court = 'Solo en el primario'");
+        primary.update("DELETE FROM users WHERE email = 'recien-registrado@test.local'");
+        if (bookingId != null) {
+            bookingIntervalIndex.untrack(bookingId);
+            primary.update("DELETE FROM notification_outbox WHERE body LIKE ?", "%#" + bookingId + " %");
+            primary.update("DELETE FROM bookings WHERE id_booking = ?", bookingId);
+        }
+    }
+
+    @Test
+    void readOnlyListingsUseTheReplica() {
+        replica.update("INSERT INTO courts (id_owner, name_court, direction, price) VALUES (1, 'Solo en la réplica', 'Calle 2', 900)");
+        authenticate("joaquin@test.local");
+
+        List<CourtResponseDTO> available = courtService.getAvailableCourts(START, START.plusHours(1));
+
+        assertThat(available).extracting(CourtResponseDTO::nameCourt).contains("Solo en la réplica");
+    }
+
+    @Test
+    void writesGoToPrimaryAndTheWriterReadsItsOwnBooking() throws InterruptedException {
+        authenticate("maxi@test.local");
+        bookingId = bookingService.createBooking(new BookingDTO(1L, START, START.plusHours(1))).idBooking();
+
+        assertThat(primary.queryForObject("SELECT COUNT(*) FROM bookings WHERE id_booking = ?", Long.class, bookingId)).isOne();
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM bookings WHERE id_booking = ?", Long.class, bookingId)).isZero();
+
+        // Recién escribió: su listado sale del primario aunque la réplica no tenga la reserva
+        assertThat(myBookingIds()).contains(bookingId);
+
+        // Otro usuario lee de la réplica
+        authenticate("joaquin@test.local");
+        assertThat(bookingService.getBookings(SecurityContextHolder.getContext().getAuthentication(),
+                1L, null, null, null, START.minusDays(1), null, null, 20).items())
+                .extracting(BookingResponseDTO::idBooking).doesNotContain(bookingId);
+
+        // Pasada la ventana, el autor también vuelve a la réplica
+        Thread.sleep(1_200);
+        authenticate("maxi@test.local");
+        assertThat(myBookingIds()).doesNotContain(bookingId);
+    }
+
+    @Test
+    void anonymousWritesDoNotMovePublicTrafficToThePrimary() {
+        replica.update("INSERT INTO courts (id_owner, name_court, direction, price) VALUES (1, 'Solo en la réplica', 'Calle 2', 900)");
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("anonimo", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        authService.register(new RegisterRequest("Recién registrado", "recien-registrado@test.local", "secreto123", null));
+
+        // Otro visitante anónimo, mismo nombre "anonymousUser": sigue leyendo de la réplica
+        assertThat(courtService.getAvailableCourts(START, START.plusHours(1)))
+                .extracting(CourtResponseDTO::nameCourt).contains("Solo en la réplica");
+    }
+
+    @Test
+    void catalogCacheMissesReadFromThePrimaryOverHttp() throws Exception {
+        replica.update("INSERT INTO courts (id_owner, name_court, direction, price) VALUES (1, 'Solo en la réplica', 'Calle 2', 900)");
+        primary.update("INSERT INTO courts (id_owner, name_court, direction, price) VALUES (1, 'Solo en el primario', 'Calle 3', 900)");
+        cacheManager.getCache(CacheConfig.COURTS).clear();
+
+        // Aunque quien pide el catálogo esté en una transacción de solo lectura
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<CourtResponseDTO> courts = readOnly.execute(status -> courtService.getAllCourts());
+        assertThat(courts).extracting(CourtResponseDTO::nameCourt)
+                .contains("Solo en el primario").doesNotContain("Solo en la réplica");
+
+        cacheManager.getCache(CacheConfig.COURTS).clear();
+        String body = mockMvc.perform(get("/api/courts"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).contains("Solo en el primario").doesNotContain("Solo en la réplica");
+        // Con open-in-view la conexión se suelta en cada transacción: cada una pasa por el ruteo
+        assertThat(entityManagerFactory.getProperties().get(AvailableSettings.CONNECTION_HANDLING))
+                .isEqualTo(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Test
+    void newUsersCanLogInBeforeTheReplicaHasThem() {
+        authService.register(new RegisterRequest("Recién registrado", "recien-registrado@test.local", "secreto123", null));
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM users WHERE email = 'recien-registrado@test.local'",
+                Long.class)).isZero();
+
+        assertThat(authService.login(new LoginRequest("recien-registrado@test.local", "secreto123")).token()).isNotBlank();
+    }
+
+    private List<Long> myBookingIds() {
+        return bookingService.getBookingsByAuthenticatedUser(null, null, START.minusDays(1), null, null, 20)
+                .items().stream().map(BookingResponseDTO::idBooking).toList();
+    }
+
+    private void authenticate(String email) {
+        AuthenticatedUser principal = AuthenticatedUser.from(userRepository.findByEmail(email).orElseThrow());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
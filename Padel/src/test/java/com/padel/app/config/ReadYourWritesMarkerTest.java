@@ -0,0 +1,110 @@
+package com.padel.app.config;
+
+import com.padel.app.model.User;
+import com.padel.app.security.AuthenticatedUser;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dos {@link ReplicaRoutingDataSource} con la misma clave hacen de dos instancias de la aplicación:
+ * la que no recibió la escritura manda al autor al primario solo si trae su cookie firmada.
+ */
+class ReadYourWritesMarkerTest {
+
+    private static final String SECRET = "clave-de-prueba-para-la-marca-read-your-writes";
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+
+    private final ReplicaRoutingDataSource writer = routing(WINDOW, SECRET);
+    private final ReplicaRoutingDataSource other = routing(WINDOW, SECRET);
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void markerSendsTheWriterToThePrimaryOnAnotherInstance() {
+        Cookie marker = write(writer, 7L);
+
+        assertThat(marker.isHttpOnly()).isTrue();
+        assertThat(marker.getPath()).isEqualTo("/");
+        assertThat(read(other, 7L, marker)).isEqualTo(ReplicaRoutingDataSource.Target.PRIMARY);
+        assertThat(read(other, 7L, null)).isEqualTo(ReplicaRoutingDataSource.Target.REPLICA);
+        // La cookie de otro usuario no sirve
+        assertThat(read(other, 8L, marker)).isEqualTo(ReplicaRoutingDataSource.Target.REPLICA);
+    }
+
+    @Test
+    void forgedOrExpiredMarkersAreIgnored() throws InterruptedException {
+        Cookie marker = write(writer, 7L);
+        String signature = marker.getValue().substring(marker.getValue().lastIndexOf('.'));
+        String expiresAt = marker.getValue().split("\\.")[1];
+
+        Cookie forged = new Cookie(ReadYourWritesMarker.COOKIE, "8." + expiresAt + signature);
+        assertThat(read(other, 8L, forged)).isEqualTo(ReplicaRoutingDataSource.Target.REPLICA);
+        assertThat(read(routing(WINDOW, "otra-clave-distinta-de-la-que-firmo-la-marca"), 7L, marker))
+                .isEqualTo(ReplicaRoutingDataSource.Target.REPLICA);
+
+        ReplicaRoutingDataSource shortWindow = routing(Duration.ofMillis(50), SECRET);
+        Cookie shortMarker = write(shortWindow, 7L);
+        Thread.sleep(100);
+        assertThat(read(routing(Duration.ofMillis(50), SECRET), 7L, shortMarker))
+                .isEqualTo(ReplicaRoutingDataSource.Target.REPLICA);
+    }
+
+    private static ReplicaRoutingDataSource routing(Duration window, String secret) {
+        return new ReplicaRoutingDataSource(new DriverManagerDataSource(), new DriverManagerDataSource(), window, secret);
+    }
+
+    // Transacción de escritura confirmada dentro de un request; devuelve la cookie de la respuesta
+    private static Cookie write(ReplicaRoutingDataSource routing, Long userId) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        inRequest(userId, new MockHttpServletRequest(), response);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Target.PRIMARY);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+        return response.getCookie(ReadYourWritesMarker.COOKIE);
+    }
+
+    private static Object read(ReplicaRoutingDataSource routing, Long userId, Cookie cookie) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (cookie != null) {
+            request.setCookies(cookie);
+        }
+        inRequest(userId, request, new MockHttpServletResponse());
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return routing.determineCurrentLookupKey();
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    private static void inRequest(Long userId, MockHttpServletRequest request, MockHttpServletResponse response) {
+        AuthenticatedUser principal = new AuthenticatedUser(userId, "usuario" + userId + "@test.local", User.Role.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+}
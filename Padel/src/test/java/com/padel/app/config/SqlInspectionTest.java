@@ -0,0 +1,98 @@
+package com.padel.app.config;
+
+import com.jayway.jsonpath.JsonPath;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /actuator/sqlstats agrupa las sentencias por patrón de endpoint, y el tracker marca como
+ * posible N+1 la misma sentencia repetida en un request, sin exponer los valores.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlInspectionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SqlStatementTracker tracker;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void aggregatesStatementsPerEndpointPattern() throws Exception {
+        String user = token("maxi@test.local");
+        mockMvc.perform(get("/api/bookings/1").header("Authorization", "Bearer " + user)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/bookings/1").header("Authorization", "Bearer " + user)).andExpect(status().isOk());
+
+        String body = mockMvc.perform(get("/actuator/sqlstats").header("Authorization", "Bearer " + token("joaquin@test.local")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<Map<String, Object>> byId = JsonPath.read(body, "$[?(@.endpoint == 'GET /api/bookings/{id}')]");
+        assertThat(byId).hasSize(1);
+        assertThat(((Number) byId.get(0).get("requests")).longValue()).isGreaterThanOrEqualTo(2);
+        assertThat(((Number) byId.get(0).get("statements")).longValue()).isGreaterThanOrEqualTo(2);
+        assertThat(((Number) byId.get(0).get("jdbcTimeMs")).doubleValue()).isPositive();
+    }
+
+    @Test
+    void onlyAdminsCanReadStats() throws Exception {
+        mockMvc.perform(get("/actuator/sqlstats").header("Authorization", "Bearer " + token("maxi@test.local")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void detectsRepeatedStatementsWithinOneRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/prueba/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/prueba/{id}");
+
+        tracker.begin(request);
+        try {
+            // Mismo SELECT con literales distintos: misma forma, como un lazy load por fila
+            for (int i = 0; i < 12; i++) {
+                jdbcTemplate.queryForList("SELECT name_user FROM users WHERE email = 'u" + i + "@test.local' AND id_user > " + i);
+            }
+        } finally {
+            tracker.end();
+        }
+
+        SqlStatementTracker.EndpointSummary summary = tracker.summary().stream()
+                .filter(s -> s.endpoint().equals("GET /api/prueba/{id}"))
+                .findFirst().orElseThrow();
+        assertThat(summary.statements()).isEqualTo(12);
+        assertThat(summary.nPlusOneRequests()).isEqualTo(1);
+        assertThat(summary.lastNPlusOneSql()).isEqualTo("SELECT name_user FROM users WHERE email = ? AND id_user > ?");
+    }
+
+    @Test
+    void normalizedShapeHidesValues() {
+        assertThat(SqlStatementTracker.normalize("""
+                select b1_0.id_booking from bookings b1_0
+                where b1_0.id_court in (?, ?, ?) and b1_0.status = 'BOOKED' and b1_0.price > 10.5 limit 20"""))
+                .isEqualTo("select b1_0.id_booking from bookings b1_0 where b1_0.id_court in (?) and b1_0.status = ? and b1_0.price > ? limit ?");
+    }
+
+    private String token(String email) {
+        return jwtService.generateToken(userRepository.findByEmail(email).orElseThrow());
+    }
+}
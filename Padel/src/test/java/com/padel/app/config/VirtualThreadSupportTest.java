@@ -0,0 +1,84 @@
+package com.padel.app.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hilos virtuales: el arranque falla si se piden sobre un JRE anterior a 21, y el monitor de
+ * pinning cuenta cada evento pero loguea cada lugar una sola vez.
+ */
+class VirtualThreadSupportTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void virtualThreadsRequireJava21() {
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> VirtualThreadsRuntimeCheck.check(17));
+        assertTrue(error.getMessage().contains("Java 17"), error.getMessage());
+        assertDoesNotThrow(() -> VirtualThreadsRuntimeCheck.check(21));
+    }
+
+    @Test
+    void countsEveryPinningButLogsEachSiteOnce() {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, 20);
+        List<String> driverLock = List.of("java.lang.VirtualThread.parkOnCarrierThread:677",
+                "com.mysql.cj.NativeSession.execSQL:1000", "com.padel.app.service.BookingService.createBooking:80");
+        List<String> embeddedLock = List.of("java.lang.VirtualThread.parkOnCarrierThread:677",
+                "org.h2.engine.SessionLocal.lock:1", "com.padel.app.service.BookingService.createBooking:80");
+
+        assertTrue(monitor.record(Duration.ofMillis(30), "tomcat-1", driverLock));
+        assertFalse(monitor.record(Duration.ofMillis(50), "tomcat-2", driverLock));
+        // Mismas frames del JDK arriba, otro lugar debajo
+        assertTrue(monitor.record(Duration.ofMillis(25), "tomcat-3", embeddedLock));
+        // Sin stack trace: se agrupan todos como un único lugar desconocido
+        assertTrue(monitor.record(Duration.ofMillis(25), "?", List.of()));
+        assertFalse(monitor.record(Duration.ofMillis(25), "?", List.of()));
+
+        assertEquals(5, registry.get("padel.threads.pinned").counter().count());
+        assertEquals(5, registry.get("padel.threads.pinned.duration").timer().count());
+        assertEquals(155, registry.get("padel.threads.pinned.duration").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    // El evento JFR real: un hilo virtual que duerme dentro de un synchronized queda clavado a su carrier
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void capturesPinnedVirtualThreads() throws Exception {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, 10);
+        monitor.start();
+        // Por reflexión: el proyecto compila contra Java 17
+        ExecutorService virtual = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        try {
+            Object lock = new Object();
+            virtual.submit(() -> {
+                synchronized (lock) {
+                    Thread.sleep(50);
+                }
+                return null;
+            }).get(5, TimeUnit.SECONDS);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (registry.get("padel.threads.pinned").counter().count() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+        } finally {
+            virtual.shutdownNow();
+            monitor.stop();
+        }
+        assertEquals(1, registry.get("padel.threads.pinned").counter().count());
+        assertTrue(registry.get("padel.threads.pinned.duration").timer().totalTime(TimeUnit.MILLISECONDS) >= 40);
+    }
+}
@@ -0,0 +1,119 @@
+package com.padel.app.controller;
+
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingExportTest {
+
+    private static final int BOOKINGS = 250;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private Court court;
+    private final List<Long> createdBookings = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        owner = userRepository.save(new User(null, "exporta@test.local", "x", "Dueña, Exporta", null,
+                User.Role.OWNER, 0, null, null));
+        court = courtRepository.save(new Court(null, owner, "Cancha \"Norte\", techada", "Calle 2", null, null,
+                BigDecimal.TEN, null));
+
+        LocalDateTime start = LocalDateTime.of(2021, 3, 1, 8, 0);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime from = start.plusHours(i * 2L);
+            bookings.add(new Booking(court, owner, from, from.plusHours(1)));
+        }
+        bookingRepository.saveAll(bookings).forEach(b -> createdBookings.add(b.getIdBooking()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookingRepository.deleteAllByIdInBatch(createdBookings);
+        courtRepository.deleteById(court.getIdCourt());
+        userRepository.deleteById(owner.getIdUser());
+    }
+
+    @Test
+    void ownerExportsOnlyTheirCourtsAsNdjson() throws Exception {
+        String body = export("/api/bookings/export?format=ndjson", jwtService.generateToken(owner));
+
+        String[] lines = body.split("\n");
+        assertEquals(BOOKINGS, lines.length);
+        for (String line : lines) {
+            assertTrue(line.contains("\"idCourt\":" + court.getIdCourt()), line);
+        }
+        assertTrue(lines[0].contains("\"startTime\":\"2021-03-01T08:00:00\""), lines[0]);
+    }
+
+    @Test
+    void adminExportsCsvWithEscapedFields() throws Exception {
+        String admin = jwtService.generateToken(userRepository.findByEmail("joaquin@test.local").orElseThrow());
+
+        String body = export("/api/bookings/export?format=csv&courtId=" + court.getIdCourt(), admin);
+
+        String[] lines = body.split("\n");
+        assertEquals("idBooking,idCourt,nameCourt,idUser,nameUser,startTime,endTime,status", lines[0]);
+        assertEquals(BOOKINGS + 1, lines.length);
+        assertTrue(lines[1].contains(",\"Cancha \"\"Norte\"\", techada\",") && lines[1].contains(",\"Dueña, Exporta\","),
+                lines[1]);
+    }
+
+    @Test
+    void usersCannotExport() throws Exception {
+        String user = jwtService.generateToken(userRepository.findByEmail("maxi@test.local").orElseThrow());
+
+        mockMvc.perform(get("/api/bookings/export").header("Authorization", "Bearer " + user))
+                .andExpect(status().isForbidden());
+    }
+
+    private String export(String url, String token) throws Exception {
+        MvcResult started = mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+    }
+}
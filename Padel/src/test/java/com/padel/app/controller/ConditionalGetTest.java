@@ -0,0 +1,156 @@
+package com.padel.app.controller;
+
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.NotificationRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.JwtService;
+import com.padel.app.service.BookingIntervalIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String adminToken;
+    private String userToken;
+    private Statistics stats;
+
+    @BeforeEach
+    void setUp() {
+        adminToken = jwtService.generateToken(userRepository.findByEmail("joaquin@test.local").orElseThrow());
+        userToken = jwtService.generateToken(userRepository.findByEmail("maxi@test.local").orElseThrow());
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void courtCatalogAnswers304UntilACourtChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/courts"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        stats.clear();
+        mockMvc.perform(get("/api/courts").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertEquals(0, stats.getPrepareStatementCount());
+
+        String original = mockMvc.perform(asAdmin(get("/api/courts/1")))
+                .andReturn().getResponse().getContentAsString();
+        patchPrice("1234.00");
+        try {
+            String changed = mockMvc.perform(get("/api/courts").header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotEquals(etag, changed);
+        } finally {
+            patchPrice(original.replaceAll(".*\"price\":([0-9.]+).*", "$1"));
+        }
+    }
+
+    @Test
+    void courtByIdHonorsIfNoneMatchAndIfModifiedSince() throws Exception {
+        var response = mockMvc.perform(asAdmin(get("/api/courts/1")))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse();
+
+        mockMvc.perform(asAdmin(get("/api/courts/1"))
+                        .header(HttpHeaders.IF_NONE_MATCH, response.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(asAdmin(get("/api/courts/1"))
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, response.getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(asAdmin(get("/api/courts/999999")).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void myBookingsAnswers304UntilTheUserBooks() throws Exception {
+        String etag = mockMvc.perform(get("/api/bookings/my-bookings").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/bookings/my-bookings")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Otra página/filtro es otro recurso: no comparte ETag
+        mockMvc.perform(get("/api/bookings/my-bookings?size=5")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(40).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        mockMvc.perform(post("/api/bookings")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"idCourt": 1, "startTime": "%s", "endTime": "%s"}
+                                """.formatted(start, start.plusHours(1))))
+                .andExpect(status().isCreated());
+        try {
+            mockMvc.perform(get("/api/bookings/my-bookings")
+                            .header("Authorization", "Bearer " + userToken)
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk());
+        } finally {
+            bookingRepository.findOverlappingBookings(1L, start, start.plusHours(1)).forEach(b -> {
+                bookingIntervalIndex.untrack(b.getIdBooking());
+                bookingRepository.deleteById(b.getIdBooking());
+                // El email de confirmación quedaría pendiente en el outbox compartido
+                notificationRepository.deleteAllInBatch(notificationRepository.findAll().stream()
+                        .filter(n -> n.getBody().contains("#" + b.getIdBooking() + " "))
+                        .toList());
+            });
+        }
+    }
+
+    private MockHttpServletRequestBuilder asAdmin(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + adminToken);
+    }
+
+    private void patchPrice(String price) throws Exception {
+        mockMvc.perform(asAdmin(patch("/api/courts/1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": " + price + "}"))
+                .andExpect(status().isOk());
+    }
+}
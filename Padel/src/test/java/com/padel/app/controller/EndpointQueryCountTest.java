@@ -0,0 +1,139 @@
+package com.padel.app.controller;
+
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.NotificationRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.JwtService;
+import com.padel.app.service.BookingIntervalIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cantidad de sentencias SQL por endpoint autenticado. Los máximos fijan la mejora lograda
+ * al resolver el usuario autenticado una sola vez desde el token.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EndpointQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String adminToken;
+    private String userToken;
+    private Statistics stats;
+
+    @BeforeEach
+    void setUp() {
+        adminToken = jwtService.generateToken(userRepository.findByEmail("joaquin@test.local").orElseThrow());
+        userToken = jwtService.generateToken(userRepository.findByEmail("maxi@test.local").orElseThrow());
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getBookingByIdAsAdmin() throws Exception {
+        assertStatements("GET /api/bookings/1 (admin)", 1, get("/api/bookings/1"), adminToken, status().isOk());
+    }
+
+    @Test
+    void getBookingByIdAsItsUser() throws Exception {
+        assertStatements("GET /api/bookings/1 (user)", 1, get("/api/bookings/1"), userToken, status().isOk());
+    }
+
+    @Test
+    void getMyBookings() throws Exception {
+        // versión para el ETag + página
+        assertStatements("GET /api/bookings/my-bookings", 2, get("/api/bookings/my-bookings"), userToken, status().isOk());
+    }
+
+    @Test
+    void getMyBookingsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/bookings/my-bookings").header("Authorization", "Bearer " + userToken))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertStatements("GET /api/bookings/my-bookings (304)", 1, get("/api/bookings/my-bookings")
+                .header(HttpHeaders.IF_NONE_MATCH, etag), userToken, status().isNotModified());
+    }
+
+    @Test
+    void getAllUsers() throws Exception {
+        assertStatements("GET /api/users", 1, get("/api/users"), adminToken, status().isOk());
+    }
+
+    @Test
+    void getUserById() throws Exception {
+        assertStatements("GET /api/users/2", 1, get("/api/users/2"), adminToken, status().isOk());
+    }
+
+    @Test
+    void patchCourt() throws Exception {
+        assertStatements("PATCH /api/courts/1", 2, patch("/api/courts/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 1200.00}"), adminToken, status().isOk());
+    }
+
+    @Test
+    void createBooking() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(30).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        String body = """
+                {"idCourt": 1, "startTime": "%s", "endTime": "%s"}
+                """.formatted(start, start.plusHours(1));
+
+        // incluye el insert en el outbox de emails; el bloque de ids no pasa por Hibernate (BookingIdAllocator)
+        try {
+            assertStatements("POST /api/bookings", 5, post("/api/bookings")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body), userToken, status().isCreated());
+        } finally {
+            // También sale del índice en memoria: si no, rechazaría ese horario en los demás tests
+            bookingRepository.findOverlappingBookings(1L, start, start.plusHours(1)).forEach(b -> {
+                bookingIntervalIndex.untrack(b.getIdBooking());
+                bookingRepository.deleteById(b.getIdBooking());
+                // El email de confirmación quedaría pendiente en el outbox compartido
+                notificationRepository.deleteAllInBatch(notificationRepository.findAll().stream()
+                        .filter(n -> n.getBody().contains("#" + b.getIdBooking() + " "))
+                        .toList());
+            });
+        }
+    }
+
+    private void assertStatements(String endpoint, long max, MockHttpServletRequestBuilder request,
+                                  String token, ResultMatcher expectedStatus) throws Exception {
+        stats.clear();
+        mockMvc.perform(request.header("Authorization", "Bearer " + token))
+                .andExpect(expectedStatus);
+        long statements = stats.getPrepareStatementCount();
+        assertTrue(statements <= max, endpoint + " ejecutó " + statements + " sentencias, máximo " + max);
+    }
+}
@@ -0,0 +1,71 @@
+package com.padel.app.controller;
+
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /actuator/prometheus expone los timers de los servicios y de cada endpoint con histograma,
+ * los contadores de negocio y los gauges de cachés y pools. Solo lo ve ADMIN.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void exposesServiceTimersCountersAndGauges() throws Exception {
+        mockMvc.perform(get("/api/courts")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"maxi@test.local\", \"password\": \"incorrecta\"}"))
+                .andExpect(status().isBadRequest());
+
+        String admin = token("joaquin@test.local");
+        String body = mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + admin))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body)
+                .contains("padel_service_seconds_bucket{class=\"com.padel.app.service.CourtService\"")
+                .contains("method=\"getAllCourts\"")
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/api/courts\"")
+                .contains("padel_auth_failures_total{type=\"login\"} 1.0")
+                .contains("padel_bookings_conflicts_total{stage=\"index\"}")
+                .contains("padel_bookings_cancellations_total")
+                .contains("cache_size{cache=\"courts\"")
+                .contains("cache_gets_total{cache=\"user-entities\",cache_manager=\"hibernate\"")
+                .contains("hikaricp_connections_active")
+                .contains("padel_jwt_claims_cache_size")
+                .contains("padel_bookings_index_size");
+    }
+
+    @Test
+    void onlyAdminsCanScrape() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + token("maxi@test.local")))
+                .andExpect(status().isForbidden());
+    }
+
+    private String token(String email) {
+        return jwtService.generateToken(userRepository.findByEmail(email).orElseThrow());
+    }
+}
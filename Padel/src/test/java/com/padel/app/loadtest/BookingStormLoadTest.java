@@ -0,0 +1,369 @@
+package com.padel.app.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.padel.app.PadelApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de carga de la "apertura de turnos": muchos usuarios pidiendo a la vez los turnos de la
+ * semana siguiente en las mismas canchas. Levanta la aplicación completa sobre la H2 embebida de los
+ * tests, carga loadtest/seed_data.sql, hace login de cada usuario por /api/auth/login y lanza tráfico
+ * concurrente de alta, cancelación y consulta de disponibilidad por HTTP.
+ * Informa p50/p99, throughput, rechazos por conflicto y reservas superpuestas (que deben ser 0).
+ *
+ * <pre>./mvnw -Ploadtest test [-Dloadtest.users=200 -Dloadtest.duration-seconds=30]</pre>
+ *
+ * Para comparar hilos de plataforma con hilos virtuales (Java 21+) con el mismo pool de conexiones:
+ * <pre>./mvnw -Ploadtest test -Dloadtest.virtual-threads=true -Dloadtest.pool-size=10</pre>
+ */
+public class BookingStormLoadTest {
+
+    private static final String PASSWORD = "loadtest123";
+    private static final int MAX_USERS = 500;
+    private static final int SLOT_MINUTES = 90;
+    private static final int FIRST_HOUR = 8;
+    private static final int SLOTS_PER_DAY = 10;
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("loadtest.virtual-threads");
+    private static final int POOL_SIZE = Integer.getInteger("loadtest.pool-size", 10);
+
+    private enum Op {
+        LOGIN, CREATE, CANCEL, AVAILABILITY
+    }
+
+    private final ConfigurableApplicationContext context;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+
+    private final int users = Integer.getInteger("loadtest.users", 200);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 30);
+    private final int days = Integer.getInteger("loadtest.days", 7);
+    private final long seed = Long.getLong("loadtest.seed", 42L);
+    private final String reportFile = System.getProperty("loadtest.report", "target/loadtest-report.json");
+
+    private List<Long> courtIds;
+    private LocalDate firstDay;
+
+    public static void main(String[] args) throws Exception {
+        if (VIRTUAL_THREADS && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("loadtest.virtual-threads requiere Java 21 o superior");
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PadelApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN",
+                        "logging.level.com.padel.app.config.VirtualThreadPinningMonitor=WARN",
+                        "spring.threads.virtual.enabled=" + VIRTUAL_THREADS,
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE)
+                .run();
+        int exitCode;
+        try {
+            exitCode = new BookingStormLoadTest(context).run();
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    BookingStormLoadTest(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        this.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        if (users < 1 || users > MAX_USERS) {
+            throw new IllegalArgumentException("loadtest.users debe estar entre 1 y " + MAX_USERS);
+        }
+    }
+
+    int run() throws Exception {
+        new ResourceDatabasePopulator(new ClassPathResource("loadtest/seed_data.sql"))
+                .execute(context.getBean(DataSource.class));
+        courtIds = jdbcTemplate.queryForList(
+                "SELECT id_court FROM courts WHERE name_court LIKE 'Club Carga%' ORDER BY id_court", Long.class);
+        firstDay = LocalDate.now().plusDays(7);
+
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        try {
+            List<Worker> workers = login(pool);
+            long elapsedNanos = storm(pool, workers);
+            return report(workers, elapsedNanos);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<Worker> login(ExecutorService pool) throws Exception {
+        List<Future<Worker>> pending = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            int n = i;
+            pending.add(pool.submit(() -> {
+                Worker worker = new Worker(new Random(seed + n));
+                String body = objectMapper.writeValueAsString(Map.of(
+                        "email", "player" + n + "@loadtest.local", "password", PASSWORD));
+                HttpResponse<String> response = worker.timed(Op.LOGIN, post("/api/auth/login", body, null));
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Login fallido para player" + n + ": " + response.body());
+                }
+                worker.token = objectMapper.readTree(response.body()).get("token").asText();
+                return worker;
+            }));
+        }
+        List<Worker> workers = new ArrayList<>();
+        for (Future<Worker> worker : pending) {
+            workers.add(worker.get());
+        }
+        return workers;
+    }
+
+    // Todos los usuarios arrancan juntos y repiten alta (60%), disponibilidad (25%) y cancelación (15%)
+    private long storm(ExecutorService pool, List<Worker> workers) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> running = new ArrayList<>();
+        for (Worker worker : workers) {
+            running.add(pool.submit(() -> {
+                start.await();
+                long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+                while (System.nanoTime() < deadline) {
+                    worker.step();
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : running) {
+            worker.get();
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private int report(List<Worker> workers, long elapsedNanos) throws IOException {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("threads", VIRTUAL_THREADS ? "virtual" : "platform");
+        report.put("connectionPoolSize", POOL_SIZE);
+        report.put("users", users);
+        report.put("courts", courtIds.size());
+        report.put("slots", courtIds.size() * days * SLOTS_PER_DAY);
+        report.put("durationSeconds", Math.round(seconds * 10) / 10.0);
+
+        long requests = 0;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        System.out.printf("%n%-14s %9s %10s %10s %10s %10s%n", "operación", "cantidad", "req/s", "p50 ms", "p99 ms", "máx ms");
+        for (Op op : Op.values()) {
+            long[] samples = workers.stream()
+                    .flatMapToLong(w -> Arrays.stream(w.latencies.get(op).toArray()))
+                    .sorted()
+                    .toArray();
+            if (op != Op.LOGIN) {
+                requests += samples.length;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", samples.length);
+            stats.put("throughputPerSecond", op == Op.LOGIN ? null : round(samples.length / seconds));
+            stats.put("p50Ms", millis(percentile(samples, 50)));
+            stats.put("p99Ms", millis(percentile(samples, 99)));
+            stats.put("maxMs", millis(samples.length == 0 ? 0 : samples[samples.length - 1]));
+            operations.put(op.name().toLowerCase(), stats);
+            System.out.printf("%-14s %9d %10s %10.2f %10.2f %10.2f%n", op.name().toLowerCase(), samples.length,
+                    op == Op.LOGIN ? "-" : String.format("%.1f", samples.length / seconds),
+                    stats.get("p50Ms"), stats.get("p99Ms"), stats.get("maxMs"));
+        }
+        report.put("operations", operations);
+        report.put("throughputPerSecond", round(requests / seconds));
+
+        long created = workers.stream().mapToLong(w -> w.created).sum();
+        long conflicts = workers.stream().mapToLong(w -> w.conflicts).sum();
+        long cancelled = workers.stream().mapToLong(w -> w.cancelled).sum();
+        long errors = workers.stream().mapToLong(w -> w.errors).sum();
+        long doubleBookings = countDoubleBookings();
+        report.put("created", created);
+        report.put("conflictRejections", conflicts);
+        report.put("cancelled", cancelled);
+        report.put("errors", errors);
+        report.put("doubleBookings", doubleBookings);
+
+        System.out.printf("%nhilos: %s, pool de conexiones: %d%n", VIRTUAL_THREADS ? "virtuales" : "plataforma", POOL_SIZE);
+        System.out.printf("throughput total: %.1f req/s%n", requests / seconds);
+        System.out.printf("reservas creadas: %d, rechazadas por conflicto: %d, canceladas: %d, errores: %d%n",
+                created, conflicts, cancelled, errors);
+        System.out.printf("reservas superpuestas: %d%n", doubleBookings);
+
+        File file = new File(reportFile);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Reporte: " + file.getAbsolutePath());
+
+        return doubleBookings == 0 && errors == 0 ? 0 : 1;
+    }
+
+    // Pares de reservas BOOKED de una misma cancha cuyos horarios se superponen
+    private long countDoubleBookings() {
+        Long count = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM bookings a
+                JOIN bookings b ON b.id_court = a.id_court AND b.id_booking > a.id_booking
+                WHERE a.status = 'BOOKED' AND b.status = 'BOOKED'
+                AND a.start_time < b.end_time AND b.start_time < a.end_time
+                """, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private HttpRequest post(String path, String body, String token) {
+        return request(path, token).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    // Estado de un usuario simulado; cada uno corre en su propio hilo, sin compartir nada
+    private final class Worker {
+
+        private final Random random;
+        private final Map<Op, LongList> latencies = new EnumMap<>(Op.class);
+        private final Deque<Long> ownBookings = new ArrayDeque<>();
+        private String token;
+        private long created;
+        private long conflicts;
+        private long cancelled;
+        private long errors;
+
+        Worker(Random random) {
+            this.random = random;
+            for (Op op : Op.values()) {
+                latencies.put(op, new LongList());
+            }
+        }
+
+        void step() throws Exception {
+            int dice = random.nextInt(100);
+            if (dice < 15 && !ownBookings.isEmpty()) {
+                cancel();
+            } else if (dice < 40) {
+                availability();
+            } else {
+                create();
+            }
+        }
+
+        private void create() throws Exception {
+            LocalDateTime start = randomSlot();
+            String body = objectMapper.writeValueAsString(Map.of(
+                    "idCourt", courtIds.get(random.nextInt(courtIds.size())),
+                    "startTime", start.toString(),
+                    "endTime", start.plusMinutes(SLOT_MINUTES).toString()));
+            HttpResponse<String> response = timed(Op.CREATE, post("/api/bookings", body, token));
+            if (response.statusCode() == 201) {
+                JsonNode booking = objectMapper.readTree(response.body());
+                ownBookings.push(booking.get("idBooking").asLong());
+                created++;
+            } else if (response.statusCode() == 400) {
+                conflicts++;
+            } else {
+                errors++;
+            }
+        }
+
+        private void cancel() throws Exception {
+            Long id = ownBookings.pop();
+            HttpRequest request = request("/api/bookings/" + id + "/cancel", token)
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+            HttpResponse<String> response = timed(Op.CANCEL, request);
+            if (response.statusCode() == 200) {
+                cancelled++;
+            } else {
+                errors++;
+            }
+        }
+
+        private void availability() throws Exception {
+            LocalDateTime start = randomSlot();
+            HttpRequest request = request("/api/courts/availability?startTime=" + start
+                    + "&endTime=" + start.plusMinutes(SLOT_MINUTES), null).GET().build();
+            if (timed(Op.AVAILABILITY, request).statusCode() != 200) {
+                errors++;
+            }
+        }
+
+        private LocalDateTime randomSlot() {
+            return firstDay.plusDays(random.nextInt(days))
+                    .atTime(FIRST_HOUR, 0)
+                    .plusMinutes((long) random.nextInt(SLOTS_PER_DAY) * SLOT_MINUTES);
+        }
+
+        HttpResponse<String> timed(Op op, HttpRequest request) throws IOException, InterruptedException {
+            long begin = System.nanoTime();
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            latencies.get(op).add(System.nanoTime() - begin);
+            return response;
+        }
+    }
+
+    // Lista de long sin boxing para las latencias
+    private static final class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
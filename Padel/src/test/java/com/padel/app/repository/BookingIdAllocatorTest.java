@@ -0,0 +1,70 @@
+package com.padel.app.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Los ids de reservas salen por bloques de id_generators sin repetirse, y un bloque nuevo se
+ * reserva aunque el pool principal esté agotado por altas que esperan su id.
+ */
+@SpringBootTest
+class BookingIdAllocatorTest {
+
+    @Autowired
+    private BookingIdAllocator allocator;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void handsOutIncreasingIdsBelowTheReservedTop() {
+        long previous = allocator.next();
+        for (int i = 0; i < 2 * BookingIdAllocator.BLOCK_SIZE; i++) {
+            long id = allocator.next();
+            assertTrue(id > previous, id + " después de " + previous);
+            previous = id;
+        }
+        // El valor guardado es el tope del próximo bloque: todo lo entregado queda por debajo del anterior
+        long storedTop = jdbcTemplate.queryForObject("SELECT next_val FROM id_generators WHERE name = 'bookings'", Long.class);
+        assertTrue(previous <= storedTop - BookingIdAllocator.BLOCK_SIZE, previous + " / " + storedTop);
+    }
+
+    @Test
+    void reservesBlocksWhileTheMainPoolIsExhausted() throws Exception {
+        HikariDataSource mainPool = dataSource.unwrap(HikariDataSource.class);
+        List<Connection> taken = new ArrayList<>();
+        try {
+            while (taken.size() < mainPool.getMaximumPoolSize()) {
+                taken.add(dataSource.getConnection());
+            }
+            // Con el TableGenerator esto esperaba una conexión del pool principal hasta el timeout
+            List<Long> ids = CompletableFuture.supplyAsync(() -> {
+                List<Long> result = new ArrayList<>();
+                for (int i = 0; i <= BookingIdAllocator.BLOCK_SIZE; i++) {
+                    result.add(allocator.next());
+                }
+                return result;
+            }).get(5, TimeUnit.SECONDS);
+
+            assertEquals(ids.size(), ids.stream().distinct().count());
+        } finally {
+            for (Connection connection : taken) {
+                connection.close();
+            }
+        }
+    }
+}
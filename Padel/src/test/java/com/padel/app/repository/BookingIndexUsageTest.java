@@ -0,0 +1,212 @@
+package com.padel.app.repository;
+
+import com.padel.app.model.Booking;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica con EXPLAIN (H2 en modo MySQL, el mismo esquema de Flyway) que las consultas calientes
+ * de reservas usan los índices compuestos. Se explica el SQL que genera Hibernate al llamar al
+ * repositorio, con los valores ya reemplazados en el texto: así lo envía el driver de MySQL con sus
+ * prepared statements del lado del cliente (useServerPrepStmts=false, el default), y es lo que
+ * permite al optimizador descartar las ramas ":filtro IS NULL" de la consulta paginada.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.padel.app.repository.BookingIndexUsageTest$CapturedSql")
+class BookingIndexUsageTest {
+
+    private static final int COURTS = 20;
+    private static final int USERS = 10;
+    private static final int BOOKINGS_PER_COURT = 200;
+    private static final LocalDateTime START = LocalDateTime.of(2022, 1, 1, 8, 0);
+    private static final Pattern NAMED_PARAMETER = Pattern.compile(":(\\w+)");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> courts = new ArrayList<>();
+    private final List<Long> users = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        for (int u = 0; u < USERS; u++) {
+            jdbcTemplate.update("INSERT INTO users (name_user, email, password, role) VALUES (?, ?, 'x', 'USER')",
+                    "Índices " + u, "indices" + u + "@test.local");
+            users.add(jdbcTemplate.queryForObject("SELECT MAX(id_user) FROM users", Long.class));
+        }
+        for (int c = 0; c < COURTS; c++) {
+            jdbcTemplate.update("INSERT INTO courts (id_owner, name_court, direction, price) VALUES (1, ?, 'Calle', 10)",
+                    "Indices " + c);
+            courts.add(jdbcTemplate.queryForObject("SELECT MAX(id_court) FROM courts", Long.class));
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (Long court : courts) {
+            for (int i = 0; i < BOOKINGS_PER_COURT; i++) {
+                LocalDateTime from = START.plusHours(i * 2L);
+                rows.add(new Object[]{court, users.get(i % USERS), Timestamp.valueOf(from),
+                        Timestamp.valueOf(from.plusHours(1)), i % 5 == 0 ? "CANCELLED" : "BOOKED"});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO bookings (id_court, created_by, start_time, end_time, status) VALUES (?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE");
+        CapturedSql.statements.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (Long court : courts) {
+            jdbcTemplate.update("DELETE FROM bookings WHERE id_court = ?", court);
+            jdbcTemplate.update("DELETE FROM courts WHERE id_court = ?", court);
+        }
+        users.forEach(user -> jdbcTemplate.update("DELETE FROM users WHERE id_user = ?", user));
+    }
+
+    @Test
+    void overlapCheckUsesCourtStatusTimeIndex() {
+        LocalDateTime start = START.plusDays(4).plusHours(1);
+        Map<String, Object> values = Map.of("courtId", courts.get(0), "startTime", start, "endTime", start.plusHours(1));
+
+        bookingRepository.existsByCourtAndTimeRange(courts.get(0), start, start.plusHours(1));
+
+        String plan = explain(BookingRepository.class, "existsByCourtAndTimeRange", values, null);
+        assertTrue(plan.contains("idx_booking_court_status_time"), plan);
+    }
+
+    // La variante que usan las modificaciones, que excluye a la reserva movida
+    @Test
+    void overlapCheckForMovesUsesCourtStatusTimeIndex() {
+        LocalDateTime start = START.plusDays(4).plusHours(1);
+        Map<String, Object> values = Map.of("courtId", courts.get(0), "startTime", start, "endTime", start.plusHours(1),
+                "excludedId", 1L);
+
+        bookingRepository.existsOtherByCourtAndTimeRange(courts.get(0), start, start.plusHours(1), 1L);
+
+        String plan = explain(BookingRepository.class, "existsOtherByCourtAndTimeRange", values, null);
+        assertTrue(plan.contains("idx_booking_court_status_time"), plan);
+    }
+
+    @Test
+    void availabilitySubqueryUsesCourtStatusTimeIndex() {
+        LocalDateTime start = START.plusDays(4).plusHours(1);
+        Map<String, Object> values = Map.of("startTime", start, "endTime", start.plusHours(1));
+
+        courtRepository.findAvailableCourts(start, start.plusHours(1));
+
+        String plan = explain(CourtRepository.class, "findAvailableCourts", values, null);
+        assertTrue(plan.contains("not exists"), plan);
+        assertTrue(plan.contains("idx_booking_court_status_time"), plan);
+    }
+
+    @Test
+    void myBookingsPagesWalkTheUserStartIndex() {
+        Long user = users.get(3);
+        // Los filtros que no vienen quedan en null
+        Map<String, Object> firstPage = Map.of("userId", user);
+
+        List<?> page = bookingRepository.findResponsesPage(null, null, user, null, null, null, null, null, Limit.of(21));
+        assertEquals(21, page.size());
+        String plan = explain(BookingRepository.class, "findResponsesPage", firstPage, 21);
+        // Se entra por las reservas del usuario, no por users ni recorriendo idx_booking_start. Sin rango
+        // en start_time H2 empata con el índice que creó para la FK (MySQL lo descarta al existir
+        // idx_booking_user_start), y su planificador no usa un índice para el ORDER BY después de una
+        // igualdad, cosa que MySQL sí hace con este índice recorriéndolo hacia atrás.
+        assertTrue(plan.indexOf("\"bookings\"") < plan.indexOf("\"users\""), plan);
+        assertTrue(plan.matches("(?s).*public\\.(idx_booking_user_start|fk_booking_user_index_\\w+): created_by = cast\\("
+                + user + " as bigint\\).*"), plan);
+
+        // Página siguiente por keyset, filtrada por estado: el rango en start_time usa el índice compuesto
+        LocalDateTime afterStart = START.plusHours(300);
+        Map<String, Object> nextPage = Map.of("userId", user, "status", Booking.Status.BOOKED,
+                "afterStart", afterStart, "afterId", Long.MAX_VALUE);
+        CapturedSql.statements.clear();
+
+        bookingRepository.findResponsesPage(null, null, user, Booking.Status.BOOKED, null, null, afterStart,
+                Long.MAX_VALUE, Limit.of(21));
+        plan = explain(BookingRepository.class, "findResponsesPage", nextPage, 21);
+        assertTrue(plan.contains("idx_booking_user_start: created_by = cast(" + user + " as bigint)"), plan);
+        assertTrue(plan.contains("and start_time <= timestamp"), plan);
+    }
+
+    /**
+     * EXPLAIN de la última sentencia que ejecutó Hibernate, con cada ? reemplazado por su valor.
+     * Hibernate enlaza los parámetros en el orden en que aparecen en el JPQL del @Query, y el
+     * límite (si hay) al final.
+     */
+    private String explain(Class<?> repository, String method, Map<String, Object> values, Integer limit) {
+        String sql = CapturedSql.statements.get(CapturedSql.statements.size() - 1);
+
+        List<Object> bindings = new ArrayList<>();
+        Matcher parameters = NAMED_PARAMETER.matcher(jpqlOf(repository, method));
+        while (parameters.find()) {
+            bindings.add(values.get(parameters.group(1)));
+        }
+        if (limit != null) {
+            bindings.add(limit);
+        }
+
+        StringBuilder inlined = new StringBuilder();
+        int next = 0;
+        for (char ch : sql.toCharArray()) {
+            inlined.append(ch == '?' ? literal(bindings.get(next++)) : String.valueOf(ch));
+        }
+        assertEquals(bindings.size(), next, "Cantidad de parámetros distinta en:\n" + sql);
+
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + inlined, String.class)).toLowerCase();
+    }
+
+    private static String jpqlOf(Class<?> repository, String method) {
+        Method found = Arrays.stream(repository.getDeclaredMethods())
+                .filter(m -> m.getName().equals(method))
+                .findFirst()
+                .orElseThrow();
+        return found.getAnnotation(Query.class).value();
+    }
+
+    private static String literal(Object value) {
+        if (value instanceof LocalDateTime time) {
+            return "TIMESTAMP '" + time.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "'";
+        }
+        if (value instanceof Enum<?> constant) {
+            return "'" + constant.name() + "'";
+        }
+        return value == null ? "NULL" : value.toString();
+    }
+
+    public static class CapturedSql implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.padel.app.repository;
+
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.security.AuthenticatedUser;
+import com.padel.app.service.CourtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Court y User se leen de la caché de segundo nivel después de la primera carga, el owner de
+ * una cancha se resuelve sin consultar la base, y las escrituras de la aplicación actualizan o
+ * invalidan las regiones.
+ */
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    private CourtService courtService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics stats;
+    private User owner;
+    private Court court;
+
+    @BeforeEach
+    void setUp() {
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        court = courtRepository.save(new Court(null, owner, "Caché L2", "Calle 1", null, null, BigDecimal.TEN, null));
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        courtRepository.deleteById(court.getIdCourt());
+    }
+
+    @Test
+    void courtAndOwnerComeFromTheCacheAfterTheFirstLoad() {
+        assertEquals("Joaquín", ownerNameOf(court.getIdCourt()));
+
+        stats.clear();
+        assertEquals("Joaquín", ownerNameOf(court.getIdCourt()));
+        assertEquals(0, stats.getPrepareStatementCount());
+        assertEquals(2, stats.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void updatesThroughTheServiceRefreshTheCachedCourt() {
+        courtRepository.findById(court.getIdCourt()).orElseThrow();
+        courtService.updateCourtPartialIfAllowed(court.getIdCourt(), Map.of("price", "1500.00"), admin());
+
+        stats.clear();
+        assertEquals(0, new BigDecimal("1500.00").compareTo(courtRepository.findById(court.getIdCourt()).orElseThrow().getPrice()));
+        assertEquals(0, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByEmailIsServedFromTheQueryCacheUntilUsersChange() {
+        userRepository.findByEmail("maxi@test.local").orElseThrow();
+
+        stats.clear();
+        User maxi = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        assertEquals(0, stats.getPrepareStatementCount());
+
+        Integer points = maxi.getPoints();
+        maxi.setPoints(points + 1);
+        userRepository.save(maxi);
+        try {
+            stats.clear();
+            assertEquals(points + 1, userRepository.findByEmail("maxi@test.local").orElseThrow().getPoints());
+            // La tabla users cambió: la consulta vuelve a la base
+            assertEquals(1, stats.getPrepareStatementCount());
+        } finally {
+            maxi.setPoints(points);
+            userRepository.save(maxi);
+        }
+    }
+
+    @Test
+    void archiveCopyDoesNotFlushTheEntityRegions() {
+        ownerNameOf(court.getIdCourt());
+        assertTrue(entityManagerFactory.getCache().contains(Court.class, court.getIdCourt()));
+        assertTrue(entityManagerFactory.getCache().contains(User.class, owner.getIdUser()));
+
+        // SQL nativo de escritura sobre bookings_archive: solo invalida esa tabla
+        transactionTemplate.executeWithoutResult(tx -> archivedBookingRepository.copyFromBookings(List.of(-1L), LocalDateTime.now()));
+
+        assertTrue(entityManagerFactory.getCache().contains(Court.class, court.getIdCourt()));
+        assertTrue(entityManagerFactory.getCache().contains(User.class, owner.getIdUser()));
+    }
+
+    @Test
+    void regionsPublishCacheMetrics() {
+        assertNotNull(meterRegistry.find("cache.gets")
+                .tags("cache.manager", "hibernate", "cache", "court-entities")
+                .functionCounter());
+        assertNotNull(meterRegistry.find("cache.gets")
+                .tags("cache.manager", "hibernate", "cache", "user-entities")
+                .functionCounter());
+    }
+
+    private String ownerNameOf(Long courtId) {
+        return transactionTemplate.execute(tx -> courtRepository.findById(courtId).orElseThrow().getOwner().getNameUser());
+    }
+
+    private Authentication admin() {
+        AuthenticatedUser principal = AuthenticatedUser.from(owner);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -0,0 +1,72 @@
+package com.padel.app.security;
+
+import com.padel.app.model.User;
+import com.padel.app.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatelessAuthenticationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void restoreRole() {
+        User maxi = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        maxi.setRole(User.Role.USER);
+        userRepository.save(maxi);
+    }
+
+    @Test
+    void authenticatedRequestDoesNotQueryUsers() throws Exception {
+        String token = jwtService.generateToken(userRepository.findByEmail("maxi@test.local").orElseThrow());
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        stats.clear();
+        mockMvc.perform(get("/api/health").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertEquals(0, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void roleChangeIsHonoredForTokensIssuedBefore() throws Exception {
+        User maxi = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        String userToken = jwtService.generateToken(maxi);
+        String adminToken = jwtService.generateToken(userRepository.findByEmail("joaquin@test.local").orElseThrow());
+
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(put("/api/users/" + maxi.getIdUser() + "/role")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\":\"OWNER\"}"))
+                .andExpect(status().isOk());
+
+        // El token todavía dice USER, pero el rol se resuelve contra la base
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk());
+    }
+}
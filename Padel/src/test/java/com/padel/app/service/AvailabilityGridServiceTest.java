@@ -0,0 +1,122 @@
+package com.padel.app.service;
+
+import com.padel.app.config.CacheConfig;
+import com.padel.app.dto.court.AvailabilityGridDTO;
+import com.padel.app.dto.court.CourtSlotsDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class AvailabilityGridServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 10);
+
+    @Autowired
+    private AvailabilityGridService availabilityGridService;
+    @Autowired
+    private CourtService courtService;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Court> courts = new ArrayList<>();
+    private final List<Long> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        User owner = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        User player = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        for (int i = 0; i < 2; i++) {
+            courts.add(courtRepository.save(new Court(null, owner, "Grilla " + i, "Calle", null, null, BigDecimal.TEN, null)));
+        }
+        Court first = courts.get(0);
+
+        // 10:00-11:30 ocupa tres franjas de 30 minutos; 23:00 del día anterior hasta 00:45 ocupa las dos primeras
+        save(new Booking(first, player, DAY.atTime(10, 0), DAY.atTime(11, 30)));
+        save(new Booking(first, player, DAY.minusDays(1).atTime(23, 0), DAY.atTime(0, 45)));
+        save(new Booking(first, player, DAY.atTime(23, 30), DAY.plusDays(1).atTime(1, 0)));
+        Booking cancelled = new Booking(courts.get(1), player, DAY.atTime(12, 0), DAY.atTime(13, 0));
+        cancelled.setStatus(Booking.Status.CANCELLED);
+        save(cancelled);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookingRepository.deleteAllByIdInBatch(bookings);
+        courts.forEach(court -> courtRepository.deleteById(court.getIdCourt()));
+    }
+
+    @Test
+    void gridMarksBookedSlotsPerCourtWithASingleBookingsQuery() {
+        Set<Long> ids = Set.of(courts.get(0).getIdCourt(), courts.get(1).getIdCourt());
+        cacheManager.getCache(CacheConfig.COURTS).clear(); // las canchas se crearon sin pasar por el servicio
+        courtService.getAllCourts(); // catálogo en caché, como en régimen
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        stats.clear();
+        AvailabilityGridDTO grid = availabilityGridService.getGrid(DAY, ids, 30);
+        assertEquals(1, stats.getPrepareStatementCount());
+
+        assertEquals(48, grid.slots());
+        assertEquals(2, grid.courts().size());
+        String expected = "11" + "0".repeat(18) + "111" + "0".repeat(24) + "1";
+        assertEquals(expected, busyOf(grid, courts.get(0)));
+        assertEquals("0".repeat(48), busyOf(grid, courts.get(1)));
+
+        AvailabilityGridDTO hourly = availabilityGridService.getGrid(DAY, ids, 60);
+        assertEquals("1" + "0".repeat(9) + "11" + "0".repeat(11) + "1", busyOf(hourly, courts.get(0)));
+    }
+
+    @Test
+    void slotMinutesMustSplitTheDay() {
+        assertThrows(IllegalArgumentException.class, () -> availabilityGridService.getGrid(DAY, null, 7));
+    }
+
+    @Test
+    void bitmapRangesCrossWordBoundaries() {
+        long[] bits = new long[3];
+        AvailabilityGridService.setRange(bits, 60, 130);
+        String encoded = AvailabilityGridService.encode(bits, 192);
+        assertEquals("0".repeat(60) + "1".repeat(70) + "0".repeat(62), encoded);
+    }
+
+    private void save(Booking booking) {
+        bookings.add(bookingRepository.save(booking).getIdBooking());
+    }
+
+    private static String busyOf(AvailabilityGridDTO grid, Court court) {
+        return grid.courts().stream()
+                .filter(c -> c.idCourt().equals(court.getIdCourt()))
+                .map(CourtSlotsDTO::busy)
+                .findFirst().orElseThrow();
+    }
+}
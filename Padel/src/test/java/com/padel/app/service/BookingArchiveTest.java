@@ -0,0 +1,171 @@
+package com.padel.app.service;
+
+import com.padel.app.dto.booking.BookingPageDTO;
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.repository.ArchivedBookingRepository;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Las reservas frías se mueven por lotes a bookings_archive y los listados y la exportación las
+ * siguen devolviendo; la tabla caliente se consulta sola cuando el rango no llega al archivo.
+ */
+@SpringBootTest(properties = "padel.booking.archive.chunk-size=50")
+class BookingArchiveTest {
+
+    private static final int BOOKINGS = 300;
+    // Terminan antes del corte las primeras 200; de esas, 1 de cada 10 sigue BOOKED y no se archiva
+    private static final int ARCHIVABLE = 180;
+
+    @Autowired
+    private BookingArchive bookingArchive;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingExportService bookingExportService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> createdBookings = new ArrayList<>();
+    private Court court;
+    private LocalDateTime start;
+    private LocalDateTime cutoff;
+
+    @BeforeEach
+    void seed() {
+        User owner = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        User player = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        court = courtRepository.save(new Court(null, owner, "Archivo", "Calle 1", null, null, BigDecimal.TEN, null));
+
+        start = LocalDateTime.of(2018, 1, 1, 8, 0);
+        cutoff = start.plusHours(400);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime from = start.plusHours(i * 2L);
+            Booking booking = new Booking(court, player, from, from.plusHours(1));
+            if (i % 10 != 0) {
+                booking.setStatus(i % 3 == 0 ? Booking.Status.CANCELLED : Booking.Status.COMPLETED);
+            }
+            bookings.add(booking);
+        }
+        bookingRepository.saveAll(bookings).forEach(b -> createdBookings.add(b.getIdBooking()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM bookings_archive WHERE id_court = ?", court.getIdCourt());
+        bookingRepository.deleteAllByIdInBatch(createdBookings);
+        courtRepository.deleteById(court.getIdCourt());
+    }
+
+    @Test
+    void movesColdBookingsInChunks() {
+        assertEquals(ARCHIVABLE, bookingArchive.archiveEndedBefore(cutoff));
+
+        assertEquals(BOOKINGS - ARCHIVABLE, bookingRepository.findAllById(createdBookings).size());
+        assertEquals(ARCHIVABLE, archivedBookingRepository.findAllById(createdBookings).size());
+        // Las BOOKED quedan en la tabla caliente aunque ya hayan terminado
+        assertTrue(archivedBookingRepository.findAllById(createdBookings).stream()
+                .noneMatch(b -> b.getStatus() == Booking.Status.BOOKED));
+
+        assertEquals(0, bookingArchive.archiveEndedBefore(cutoff));
+    }
+
+    @Test
+    void listingMergesHotAndArchivedBookings() {
+        bookingArchive.archiveEndedBefore(cutoff);
+        Authentication admin = authenticate();
+
+        Set<Long> seen = new HashSet<>();
+        LocalDateTime previousStart = LocalDateTime.MAX;
+        String cursor = null;
+        do {
+            BookingPageDTO page = bookingService.getBookings(admin, court.getIdCourt(), null, null, null,
+                    null, null, cursor, 40);
+            for (BookingResponseDTO booking : page.items()) {
+                assertTrue(seen.add(booking.idBooking()));
+                assertTrue(booking.startTime().isBefore(previousStart));
+                previousStart = booking.startTime();
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(BOOKINGS, seen.size());
+    }
+
+    @Test
+    void recentRangesOnlyQueryTheHotTable() {
+        bookingArchive.archiveEndedBefore(cutoff);
+        Authentication admin = authenticate();
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        stats.clear();
+        BookingPageDTO recent = bookingService.getBookings(admin, court.getIdCourt(), null, null, null,
+                cutoff, null, null, 100);
+        assertEquals(BOOKINGS - 200, recent.items().size());
+        assertEquals(1, stats.getPrepareStatementCount());
+
+        stats.clear();
+        BookingPageDTO all = bookingService.getBookings(admin, court.getIdCourt(), null, null, null,
+                start, null, null, 100);
+        assertEquals(100, all.items().size());
+        assertEquals(2, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void exportIncludesArchivedBookings() throws Exception {
+        bookingArchive.archiveEndedBefore(cutoff);
+        assertFalse(archivedBookingRepository.findAllById(createdBookings).isEmpty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingExportService.export(authenticate(), BookingExportService.Format.NDJSON, court.getIdCourt(),
+                null, null, null, null).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(BOOKINGS, lines.length);
+    }
+
+    private Authentication authenticate() {
+        AuthenticatedUser principal = AuthenticatedUser.from(userRepository.findByEmail("joaquin@test.local").orElseThrow());
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -0,0 +1,126 @@
+package com.padel.app.service;
+
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El job completa las reservas terminadas con un select + un UPDATE por lote, sin tocar las
+ * canceladas ni las que todavía no terminaron.
+ */
+@SpringBootTest(properties = {
+        "padel.booking.completion.chunk-size=100",
+        "padel.booking.completion.max-chunks-per-run=3"
+})
+class BookingCompletionJobTest {
+
+    private static final int ENDED = 250;
+
+    @Autowired
+    private BookingCompletionJob job;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> createdBookings = new ArrayList<>();
+    private Court court;
+    private LocalDateTime cutoff;
+    private Booking cancelled;
+    private Booking upcoming;
+
+    @BeforeEach
+    void seed() {
+        User owner = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        User player = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        court = courtRepository.save(new Court(null, owner, "Completadas", "Calle 1", null, null, BigDecimal.TEN, null));
+
+        // Fechas viejas para no tocar las reservas que crean los demás tests
+        LocalDateTime start = LocalDateTime.of(2019, 1, 1, 8, 0);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < ENDED; i++) {
+            LocalDateTime from = start.plusHours(i * 2L);
+            bookings.add(new Booking(court, player, from, from.plusHours(1)));
+        }
+        cutoff = start.plusHours(ENDED * 2L);
+
+        cancelled = new Booking(court, player, start.minusDays(1), start.minusDays(1).plusHours(1));
+        cancelled.setStatus(Booking.Status.CANCELLED);
+        bookings.add(cancelled);
+        upcoming = new Booking(court, player, cutoff.plusHours(1), cutoff.plusHours(2));
+        bookings.add(upcoming);
+
+        bookingRepository.saveAll(bookings).forEach(b -> createdBookings.add(b.getIdBooking()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookingRepository.deleteAllByIdInBatch(createdBookings);
+        courtRepository.deleteById(court.getIdCourt());
+    }
+
+    @Test
+    void completesEndedBookingsInChunks() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+
+        assertEquals(ENDED, job.completeEndedBookings(cutoff));
+        // count inicial + (select + update) por cada uno de los 3 lotes
+        assertEquals(1 + 3 * 2, stats.getPrepareStatementCount());
+
+        List<Booking> after = bookingRepository.findAllById(createdBookings);
+        assertEquals(ENDED, after.stream().filter(b -> b.getStatus() == Booking.Status.COMPLETED).count());
+        assertEquals(Booking.Status.CANCELLED, find(after, cancelled).getStatus());
+        assertEquals(Booking.Status.BOOKED, find(after, upcoming).getStatus());
+        // El UPDATE masivo no pasa por la auditoría: updatedAt se asigna en la consulta
+        assertTrue(after.stream().filter(b -> b.getStatus() == Booking.Status.COMPLETED)
+                .allMatch(b -> b.getUpdatedAt().isAfter(before)));
+
+        // Ya no queda nada por completar
+        assertEquals(0, job.completeEndedBookings(cutoff));
+    }
+
+    @Test
+    void runStopsAtMaxChunksPerRun() {
+        assertEquals(ENDED, job.completeEndedBookings(cutoff));
+
+        // 3 lotes de 100 como máximo: el resto queda para la próxima ejecución
+        LocalDateTime later = cutoff.plusDays(1);
+        List<Booking> more = new ArrayList<>();
+        for (int i = 0; i < 350; i++) {
+            more.add(new Booking(court, upcoming.getCreatedBy(), later.minusHours(i + 1), later.minusHours(i + 1).plusMinutes(30)));
+        }
+        bookingRepository.saveAll(more).forEach(b -> createdBookings.add(b.getIdBooking()));
+
+        assertEquals(300, job.completeEndedBookings(later));
+        assertEquals(51, job.completeEndedBookings(later));
+    }
+
+    private static Booking find(List<Booking> bookings, Booking target) {
+        return bookings.stream().filter(b -> b.getIdBooking().equals(target.getIdBooking())).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,257 @@
+package com.padel.app.service;
+
+import com.padel.app.dto.booking.BookingDTO;
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.dto.booking.BookingSlotDTO;
+import com.padel.app.exception.ResourceBusyException;
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.NotificationRepository;
+import com.padel.app.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lanza muchas reservas simultáneas sobre las mismas canchas y horarios y verifica
+ * que nunca queden dos reservas BOOKED solapadas en la misma cancha. El índice en memoria es solo
+ * una pista: una entrada que ya no existe en la base no rechaza reservas, y al resincronizar toma
+ * lo que cambió en la base por fuera de esta instancia.
+ */
+@SpringBootTest
+class BookingConcurrencyStressTest {
+
+    private static final int COURTS = 4;
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private final List<Long> createdCourts = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Long> createdBookings = new ConcurrentLinkedQueue<>();
+
+    @AfterEach
+    void cleanUp() {
+        createdBookings.forEach(bookingIntervalIndex::untrack);
+        bookingRepository.deleteAllById(createdBookings);
+        courtRepository.deleteAllById(createdCourts);
+        // Quedarían pendientes y las enviaría el worker en NotificationDispatcherTest
+        notificationRepository.deleteAllInBatch(notificationRepository.findAll().stream()
+                .filter(n -> createdBookings.stream().anyMatch(id -> n.getBody().contains("#" + id + " ")))
+                .toList());
+    }
+
+    @Test
+    void concurrentRequestsNeverDoubleBook() throws Exception {
+        for (int i = 0; i < COURTS; i++) {
+            newCourt("Stress " + i);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime start = LocalDateTime.now().plusDays(10 + round).withHour(18).withMinute(0).withSecond(0).withNano(0);
+                CountDownLatch gate = new CountDownLatch(1);
+                List<Future<Boolean>> results = new ArrayList<>();
+
+                for (int t = 0; t < THREADS; t++) {
+                    Long courtId = createdCourts.get(t % COURTS);
+                    // Mitad de los hilos pide el mismo turno y la otra mitad un turno solapado
+                    LocalDateTime from = (t / COURTS) % 2 == 0 ? start : start.plusMinutes(30);
+                    results.add(pool.submit(book(gate, courtId, from, from.plusMinutes(90))));
+                }
+                gate.countDown();
+
+                int successes = 0;
+                for (Future<Boolean> result : results) {
+                    if (result.get(30, TimeUnit.SECONDS)) {
+                        successes++;
+                    }
+                }
+
+                // Exactamente una reserva por cancha y ronda
+                assertEquals(COURTS, successes);
+                for (Long courtId : createdCourts) {
+                    assertEquals(1, bookingRepository.findOverlappingBookings(courtId, start.minusHours(1), start.plusHours(3)).size());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(COURTS * ROUNDS, createdBookings.size());
+    }
+
+    // Mover reservas existentes compite con las altas por el mismo turno: también gana una sola
+    @Test
+    void movingBookingsOntoATakenSlotNeverDoubleBooks() throws Exception {
+        Long courtId = newCourt("Mudanzas");
+        LocalDateTime target = LocalDateTime.now().plusDays(30).withHour(18).withMinute(0).withSecond(0).withNano(0);
+        authenticateAsPlayer();
+        List<Long> movable = new ArrayList<>();
+        try {
+            // Cada una en su propio turno de la mañana, libre hasta que se mueva
+            for (int t = 0; t < THREADS / 2; t++) {
+                LocalDateTime own = target.minusDays(1).withHour(0).plusMinutes(40L * t);
+                Long id = bookingService.createBooking(new BookingDTO(courtId, own, own.plusMinutes(30))).idBooking();
+                createdBookings.add(id);
+                movable.add(id);
+            }
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch gate = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                LocalDateTime from = t % 2 == 0 ? target : target.plusMinutes(30);
+                if (t < movable.size()) {
+                    results.add(pool.submit(move(gate, movable.get(t), courtId, from, from.plusMinutes(90), t % 4 < 2)));
+                } else {
+                    results.add(pool.submit(book(gate, courtId, from, from.plusMinutes(90))));
+                }
+            }
+            gate.countDown();
+
+            int successes = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    successes++;
+                }
+            }
+            assertEquals(1, successes);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, bookingRepository.findOverlappingBookings(courtId, target.minusHours(1), target.plusHours(3)).size());
+        // El índice refleja solo lo que quedó en la base: las que no se movieron siguen en su turno
+        for (int t = 0; t < movable.size(); t++) {
+            LocalDateTime own = target.minusDays(1).withHour(0).plusMinutes(40L * t);
+            assertEquals(bookingRepository.existsByCourtAndTimeRange(courtId, own, own.plusMinutes(30)),
+                    bookingIntervalIndex.hasConflict(courtId, own, own.plusMinutes(30)));
+        }
+        assertTrue(bookingIntervalIndex.hasConflict(courtId, target.plusMinutes(30), target.plusMinutes(90)));
+    }
+
+    @Test
+    void staleIndexEntriesDoNotRejectFreeSlots() {
+        Long courtId = newCourt("Índice viejo");
+        LocalDateTime start = LocalDateTime.now().plusDays(20).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        // Como una reserva cancelada en otra instancia: sigue en este índice pero no en la base
+        bookingIntervalIndex.put(new BookingSlotDTO(-1L, courtId, start, start.plusHours(1)));
+        authenticateAsPlayer();
+        try {
+            createdBookings.add(bookingService.createBooking(new BookingDTO(courtId, start, start.plusHours(1))).idBooking());
+        } finally {
+            SecurityContextHolder.clearContext();
+            bookingIntervalIndex.remove(-1L);
+        }
+    }
+
+    @Test
+    void resyncPicksUpChangesMadeByOtherInstances() {
+        Long courtId = newCourt("Otra instancia");
+        LocalDateTime start = LocalDateTime.now().plusDays(21).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        // Reserva guardada sin pasar por BookingService, como la de otra instancia
+        Booking elsewhere = bookingRepository.save(new Booking(courtRepository.findById(courtId).orElseThrow(),
+                userRepository.findByEmail("maxi@test.local").orElseThrow(), start, start.plusHours(1)));
+        createdBookings.add(elsewhere.getIdBooking());
+        // Y una cancelada allá que este índice todavía tiene
+        bookingIntervalIndex.put(new BookingSlotDTO(-1L, courtId, start.plusHours(2), start.plusHours(3)));
+        assertFalse(bookingIntervalIndex.hasConflict(courtId, start, start.plusHours(1)));
+
+        bookingIntervalIndex.resync();
+
+        assertTrue(bookingIntervalIndex.hasConflict(courtId, start, start.plusHours(1)));
+        assertFalse(bookingIntervalIndex.hasConflict(courtId, start.plusHours(2), start.plusHours(3)));
+    }
+
+    private Long newCourt(String name) {
+        User owner = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        Court court = courtRepository.save(new Court(null, owner, name, "Calle 1", -34.6, -58.4, BigDecimal.valueOf(1000), null));
+        createdCourts.add(court.getIdCourt());
+        return court.getIdCourt();
+    }
+
+    // Por la actualización completa o por la parcial
+    private Callable<Boolean> move(CountDownLatch gate, Long bookingId, Long courtId, LocalDateTime start,
+                                   LocalDateTime end, boolean full) {
+        return () -> {
+            authenticateAsPlayer();
+            try {
+                gate.await();
+                if (full) {
+                    bookingService.updateBooking(bookingId, new BookingDTO(courtId, start, end));
+                } else {
+                    bookingService.updateBookingPartial(bookingId, Map.of("startTime", start.toString(), "endTime", end.toString()));
+                }
+                return true;
+            } catch (IllegalArgumentException | ResourceBusyException e) {
+                return false;
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+
+    private static void authenticateAsPlayer() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "maxi@test.local", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    private Callable<Boolean> book(CountDownLatch gate, Long courtId, LocalDateTime start, LocalDateTime end) {
+        return () -> {
+            authenticateAsPlayer();
+            try {
+                gate.await();
+                BookingResponseDTO created = bookingService.createBooking(new BookingDTO(courtId, start, end));
+                createdBookings.add(created.idBooking());
+                return true;
+            } catch (IllegalArgumentException | ResourceBusyException e) {
+                return false;
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+}
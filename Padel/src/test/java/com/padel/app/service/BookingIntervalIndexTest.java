@@ -0,0 +1,62 @@
+package com.padel.app.service;
+
+import com.padel.app.dto.booking.BookingSlotDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingIntervalIndexTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2030, 1, 10, 18, 0);
+
+    private final BookingIntervalIndex index = new BookingIntervalIndex(null, true);
+
+    @Test
+    void detectsOverlapsButNotAdjacentSlots() {
+        index.put(new BookingSlotDTO(1L, 7L, T, T.plusMinutes(90)));
+
+        assertTrue(index.hasConflict(7L, T.plusMinutes(30), T.plusMinutes(60)));
+        assertTrue(index.hasConflict(7L, T.minusMinutes(30), T.plusMinutes(1)));
+        assertTrue(index.hasConflict(7L, T.minusHours(1), T.plusHours(3)));
+        assertFalse(index.hasConflict(7L, T.plusMinutes(90), T.plusMinutes(150)));
+        assertFalse(index.hasConflict(7L, T.minusHours(1), T));
+        assertFalse(index.hasConflict(8L, T, T.plusMinutes(90)));
+    }
+
+    @Test
+    void longBookingsAreFoundFromLaterWindows() {
+        index.put(new BookingSlotDTO(1L, 7L, T, T.plusHours(4)));
+        index.put(new BookingSlotDTO(2L, 7L, T.plusHours(5), T.plusHours(6)));
+
+        assertTrue(index.hasConflict(7L, T.plusHours(3), T.plusMinutes(200)));
+        assertFalse(index.hasConflict(7L, T.plusHours(4), T.plusHours(5)));
+    }
+
+    @Test
+    void movingAndRemovingBookingsUpdatesSchedules() {
+        index.put(new BookingSlotDTO(1L, 7L, T, T.plusHours(1)));
+        index.put(new BookingSlotDTO(1L, 8L, T, T.plusHours(1)));
+
+        assertFalse(index.hasConflict(7L, T, T.plusHours(1)));
+        assertTrue(index.hasConflict(8L, T, T.plusHours(1)));
+
+        index.remove(1L);
+        assertFalse(index.hasConflict(8L, T, T.plusHours(1)));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void pruneDropsEndedBookings() {
+        index.put(new BookingSlotDTO(1L, 7L, T, T.plusHours(1)));
+        index.put(new BookingSlotDTO(2L, 7L, T.plusHours(2), T.plusHours(3)));
+
+        index.prune(T.plusMinutes(150));
+
+        assertEquals(1, index.size());
+        assertTrue(index.hasConflict(7L, T.plusHours(2), T.plusHours(3)));
+    }
+}
@@ -0,0 +1,182 @@
+package com.padel.app.service;
+
+import com.padel.app.dto.booking.BookingPageDTO;
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Los listados de reservas se resuelven con una única consulta por página sin importar la cantidad
+ * de filas ni la profundidad de la página (antes: todo en una lista, 1 + 2 consultas por reserva).
+ */
+@SpringBootTest
+class BookingListingQueryCountTest {
+
+    private static final int BOOKINGS = 1_000;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> createdBookings = new ArrayList<>();
+    private final List<Long> createdUsers = new ArrayList<>();
+    private Court court;
+    private Statistics stats;
+
+    @BeforeEach
+    void seed() {
+        User owner = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        court = courtRepository.save(new Court(null, owner, "Listado", "Calle 1", null, null, BigDecimal.TEN, null));
+
+        // Varios usuarios distintos para que la carga perezosa no quede resuelta por la caché de la sesión
+        List<User> players = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            User player = new User(null, "listado" + i + "@test.local", "x", "Jugador " + i, null,
+                    User.Role.USER, 0, null, null);
+            players.add(userRepository.save(player));
+            createdUsers.add(player.getIdUser());
+        }
+
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 8, 0);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime from = start.plusHours(i * 2L);
+            bookings.add(new Booking(court, players.get(i % players.size()), from, from.plusHours(1)));
+        }
+        bookingRepository.saveAll(bookings).forEach(b -> createdBookings.add(b.getIdBooking()));
+
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        bookingRepository.deleteAllByIdInBatch(createdBookings);
+        courtRepository.deleteById(court.getIdCourt());
+        userRepository.deleteAllByIdInBatch(createdUsers);
+    }
+
+    @Test
+    void everyPageOfTheFeedIsASingleQuery() {
+        Authentication admin = authenticate("joaquin@test.local");
+
+        Set<Long> seen = new HashSet<>();
+        LocalDateTime previousStart = LocalDateTime.MAX;
+        String cursor = null;
+        int pages = 0;
+        do {
+            stats.clear();
+            BookingPageDTO page = bookingService.getBookings(admin, court.getIdCourt(), null, null, null,
+                    null, null, cursor, 100);
+            // La última página cuesta lo mismo que la primera
+            assertEquals(1, stats.getPrepareStatementCount());
+
+            for (BookingResponseDTO booking : page.items()) {
+                assertTrue(seen.add(booking.idBooking()));
+                assertTrue(booking.startTime().isBefore(previousStart));
+                previousStart = booking.startTime();
+            }
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(BOOKINGS, seen.size());
+        assertEquals(BOOKINGS / 100, pages);
+    }
+
+    @Test
+    void feedFiltersByDateRangeAndStatus() {
+        Authentication admin = authenticate("joaquin@test.local");
+        LocalDateTime from = LocalDateTime.of(2020, 1, 2, 0, 0);
+
+        BookingPageDTO page = bookingService.getBookings(admin, court.getIdCourt(), null, null, "booked",
+                from, from.plusDays(1), null, 100);
+
+        assertEquals(12, page.items().size());
+        assertNull(page.nextCursor());
+        assertTrue(page.items().stream().allMatch(b -> !b.startTime().isBefore(from)));
+
+        assertTrue(bookingService.getBookings(admin, court.getIdCourt(), null, null, "CANCELLED",
+                null, null, null, 100).items().isEmpty());
+    }
+
+    @Test
+    void ownerOnlySeesBookingsOfTheirCourts() {
+        Authentication owner = authenticate("listado1@test.local", User.Role.OWNER);
+
+        assertTrue(bookingService.getBookings(owner, court.getIdCourt(), null, null, null,
+                null, null, null, 100).items().isEmpty());
+        assertThrows(AccessDeniedException.class, () -> bookingService.getBookings(owner, null,
+                court.getOwner().getIdUser(), null, null, null, null, null, 100));
+    }
+
+    @Test
+    void listingOwnBookingsIsASingleQuery() {
+        authenticate("listado0@test.local");
+
+        stats.clear();
+        BookingPageDTO page = bookingService.getBookingsByAuthenticatedUser(null, null, null, null, null, 100);
+
+        assertEquals(BOOKINGS / createdUsers.size(), page.items().size());
+        assertNull(page.nextCursor());
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        authenticate("listado0@test.local");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> bookingService.getBookingsByAuthenticatedUser(null, null, null, null, "no-es-un-cursor", 10));
+    }
+
+    private Authentication authenticate(String email) {
+        return authenticate(email, null);
+    }
+
+    private Authentication authenticate(String email, User.Role role) {
+        User user = userRepository.findByEmail(email).orElseThrow();
+        AuthenticatedUser principal = role == null
+                ? AuthenticatedUser.from(user)
+                : new AuthenticatedUser(user.getIdUser(), user.getEmail(), role);
+        Authentication auth = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        return auth;
+    }
+}
@@ -0,0 +1,172 @@
+package com.padel.app.service;
+
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.dto.booking.BookingSeriesDTO;
+import com.padel.app.dto.booking.BookingSeriesResultDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.Notification;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.NotificationRepository;
+import com.padel.app.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Una serie se valida con una sola consulta por rango, reporta cada ocurrencia ocupada y
+ * guarda el resto con INSERT en batch.
+ */
+@SpringBootTest
+class BookingSeriesServiceTest {
+
+    // Martes lejano para no cruzarse con las reservas de los demás tests
+    private static final LocalDateTime FIRST = LocalDateTime.of(2031, 3, 4, 19, 0);
+
+    @Autowired
+    private BookingSeriesService bookingSeriesService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> createdBookings = new ArrayList<>();
+    private Court court;
+    private User player;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        player = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        court = courtRepository.save(new Court(null, owner, "Series", "Calle 1", null, null, BigDecimal.TEN, null));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "maxi@test.local", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        createdBookings.forEach(bookingIntervalIndex::untrack);
+        bookingRepository.deleteAllByIdInBatch(createdBookings);
+        courtRepository.deleteById(court.getIdCourt());
+        // Quedarían pendientes y las enviaría el worker en NotificationDispatcherTest
+        notificationRepository.deleteAllInBatch(notificationRepository.findAll().stream()
+                .filter(n -> n.getType() == Notification.Type.BOOKING_SERIES_CONFIRMED)
+                .toList());
+    }
+
+    @Test
+    void weeklySeriesReportsConflictsAndBatchesTheRest() {
+        // Ocupadas la 3ª semana (superposición parcial) y la 10ª (exacta); la reserva cancelada no cuenta
+        Booking third = book(FIRST.plusWeeks(2).plusMinutes(30), FIRST.plusWeeks(2).plusHours(2));
+        Booking tenth = book(FIRST.plusWeeks(9), FIRST.plusWeeks(9).plusMinutes(90));
+        Booking cancelled = new Booking(court, player, FIRST.plusWeeks(5), FIRST.plusWeeks(5).plusMinutes(90));
+        cancelled.setStatus(Booking.Status.CANCELLED);
+        createdBookings.add(bookingRepository.save(cancelled).getIdBooking());
+        // Pegada a la 1ª ocurrencia pero sin superponerse
+        book(FIRST.minusHours(1), FIRST);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        BookingSeriesResultDTO result = create(new BookingSeriesDTO(court.getIdCourt(), FIRST, FIRST.plusMinutes(90),
+                BookingSeriesDTO.Frequency.WEEKLY, null, 20, null));
+
+        assertEquals(18, result.created().size());
+        assertEquals(2, result.conflicts().size());
+        assertEquals(FIRST.plusWeeks(2), result.conflicts().get(0).startTime());
+        assertEquals(third.getIdBooking(), result.conflicts().get(0).conflictingBookingId());
+        assertEquals(FIRST.plusWeeks(9), result.conflicts().get(1).startTime());
+        assertEquals(tenth.getIdBooking(), result.conflicts().get(1).conflictingBookingId());
+        assertTrue(result.created().stream().map(BookingResponseDTO::startTime).anyMatch(FIRST.plusWeeks(5)::equals));
+
+        // lock de la cancha + consulta por rango + un batch de INSERT + outbox: muy por debajo de una
+        // sentencia por ocurrencia. El bloque de ids va por el pool de BookingIdAllocator, fuera de Hibernate
+        long statements = stats.getPrepareStatementCount();
+        assertTrue(statements <= 5, "La serie ejecutó " + statements + " sentencias");
+
+        List<Long> ids = result.created().stream().map(BookingResponseDTO::idBooking).toList();
+        assertEquals(18, bookingRepository.findAllById(ids).stream()
+                .filter(b -> b.getStatus() == Booking.Status.BOOKED)
+                .count());
+        assertTrue(bookingIntervalIndex.hasConflict(court.getIdCourt(), FIRST.plusWeeks(19), FIRST.plusWeeks(19).plusHours(1)));
+    }
+
+    @Test
+    void dailySeriesWithIntervalStopsAtUntil() {
+        BookingSeriesResultDTO result = create(new BookingSeriesDTO(court.getIdCourt(), FIRST, FIRST.plusHours(1),
+                BookingSeriesDTO.Frequency.DAILY, 3, null, LocalDate.of(2031, 3, 16)));
+
+        // 4, 7, 10, 13 y 16 de marzo
+        assertEquals(5, result.created().size());
+        assertEquals(FIRST.plusDays(12), result.created().get(4).startTime());
+        assertTrue(result.conflicts().isEmpty());
+    }
+
+    @Test
+    void seriesWithoutFreeSlotsCreatesNothing() {
+        Booking taken = book(FIRST, FIRST.plusHours(1));
+
+        BookingSeriesResultDTO result = create(new BookingSeriesDTO(court.getIdCourt(), FIRST, FIRST.plusHours(1),
+                BookingSeriesDTO.Frequency.WEEKLY, null, 1, null));
+
+        assertTrue(result.created().isEmpty());
+        assertEquals(taken.getIdBooking(), result.conflicts().get(0).conflictingBookingId());
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        Long courtId = court.getIdCourt();
+        assertThrows(IllegalArgumentException.class, () -> bookingSeriesService.createSeries(new BookingSeriesDTO(
+                courtId, FIRST, FIRST.plusHours(1), BookingSeriesDTO.Frequency.WEEKLY, null, 4, LocalDate.of(2031, 4, 1))));
+        assertThrows(IllegalArgumentException.class, () -> bookingSeriesService.createSeries(new BookingSeriesDTO(
+                courtId, FIRST, FIRST.plusHours(1), BookingSeriesDTO.Frequency.WEEKLY, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> bookingSeriesService.createSeries(new BookingSeriesDTO(
+                courtId, FIRST, FIRST.plusHours(1), BookingSeriesDTO.Frequency.DAILY, null, 500, null)));
+        assertThrows(IllegalArgumentException.class, () -> bookingSeriesService.createSeries(new BookingSeriesDTO(
+                courtId, FIRST, FIRST.plusHours(1), BookingSeriesDTO.Frequency.DAILY, 0, 5, null)));
+        // Cada ocurrencia dura más que el período: se pisarían entre sí
+        assertThrows(IllegalArgumentException.class, () -> bookingSeriesService.createSeries(new BookingSeriesDTO(
+                courtId, FIRST, FIRST.plusHours(25), BookingSeriesDTO.Frequency.DAILY, null, 3, null)));
+    }
+
+    private BookingSeriesResultDTO create(BookingSeriesDTO dto) {
+        BookingSeriesResultDTO result = bookingSeriesService.createSeries(dto);
+        result.created().forEach(b -> createdBookings.add(b.idBooking()));
+        return result;
+    }
+
+    private Booking book(LocalDateTime start, LocalDateTime end) {
+        Booking saved = bookingRepository.save(new Booking(court, player, start, end));
+        createdBookings.add(saved.getIdBooking());
+        return saved;
+    }
+}
@@ -0,0 +1,122 @@
+package com.padel.app.service;
+
+import com.padel.app.dto.court.CourtResponseDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.model.Court;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La búsqueda de disponibilidad anterior (findAll + una consulta de solapamiento por cancha), la
+ * consulta única NOT EXISTS y el filtrado por el índice en memoria devuelven lo mismo, y las dos
+ * últimas ejecutan una sola sentencia sin importar la cantidad de canchas. La latencia se mide
+ * en {@code benchmark.CourtAvailabilityBenchmark} (perfil benchmark).
+ */
+@SpringBootTest
+class CourtAvailabilityQueryCountTest {
+
+    private static final int[] COURT_COUNTS = {10, 100};
+
+    @Autowired
+    private CourtService courtService;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> createdCourts = new ArrayList<>();
+    private final List<Long> createdBookings = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        createdBookings.forEach(bookingIntervalIndex::untrack);
+        bookingRepository.deleteAllById(createdBookings);
+        courtRepository.deleteAllById(createdCourts);
+    }
+
+    @Test
+    void availabilityQueryCountIsConstantInCourtCount() {
+        User owner = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        User player = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(19).withMinute(0).withSecond(0).withNano(0);
+        LocalDateTime end = start.plusMinutes(90);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int target : COURT_COUNTS) {
+            seedCourts(owner, player, target, start, end);
+
+            stats.clear();
+            List<CourtResponseDTO> legacy = transactionTemplate.execute(s -> legacyAvailableCourts(start, end));
+            long legacySql = stats.getPrepareStatementCount();
+
+            stats.clear();
+            assertEquals(legacy, courtRepository.findAvailableCourts(start, end));
+            assertEquals(1, stats.getPrepareStatementCount());
+
+            stats.clear();
+            assertEquals(legacy, courtService.getAvailableCourts(start, end));
+            assertEquals(1, stats.getPrepareStatementCount());
+
+            // La versión anterior crece con las canchas: al menos una consulta por cada una
+            assertTrue(legacySql > target, "La búsqueda anterior ejecutó " + legacySql + " sentencias");
+        }
+    }
+
+    // Implementación previa: una consulta de solapamiento por cancha y el owner cargado de forma perezosa
+    private List<CourtResponseDTO> legacyAvailableCourts(LocalDateTime start, LocalDateTime end) {
+        return courtRepository.findAll().stream()
+                .filter(court -> bookingRepository.findOverlappingBookings(court.getIdCourt(), start, end).isEmpty())
+                .map(court -> new CourtResponseDTO(
+                        court.getIdCourt(),
+                        court.getNameCourt(),
+                        court.getDirection(),
+                        court.getLat(),
+                        court.getLng(),
+                        court.getPrice(),
+                        court.getOwner().getIdUser(),
+                        court.getOwner().getNameUser()))
+                .toList();
+    }
+
+    private void seedCourts(User owner, User player, int target, LocalDateTime start, LocalDateTime end) {
+        for (int i = createdCourts.size(); i < target; i++) {
+            Court court = courtRepository.save(new Court(null, owner, "Bench " + i, "Calle " + i,
+                    -34.6, -58.4, BigDecimal.valueOf(1000), null));
+            createdCourts.add(court.getIdCourt());
+
+            // La mitad de las canchas queda ocupada en el rango consultado
+            if (i % 2 == 0) {
+                Booking booking = bookingRepository.save(new Booking(court, player, start, end));
+                createdBookings.add(booking.getIdBooking());
+                bookingIntervalIndex.track(booking);
+            }
+        }
+    }
+}
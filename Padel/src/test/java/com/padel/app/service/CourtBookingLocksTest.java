@@ -0,0 +1,81 @@
+package com.padel.app.service;
+
+import com.padel.app.exception.GlobalExceptionHandler;
+import com.padel.app.exception.ResourceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Una cancha con el lock tomado rechaza la reserva con {@link ResourceBusyException} al vencer la
+ * espera, y el cliente la recibe como 503 con Retry-After en lugar de un 400.
+ */
+class CourtBookingLocksTest {
+
+    private final CourtBookingLocks locks = new CourtBookingLocks(4, 50);
+
+    @AfterEach
+    void cleanUp() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lockTimeoutIsReportedAsBusy() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                locks.lockUntilTransactionEnds(1L);
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(ResourceBusyException.class, () -> locks.lockUntilTransactionEnds(1L));
+        } finally {
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void busyResourcesMapToServiceUnavailableWithRetryAfter() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+        ResponseEntity<Map<String, Object>> courtLock = handler.handleBusy(new ResourceBusyException("ocupada"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, courtLock.getStatusCode());
+        assertEquals("1", courtLock.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("ocupada", courtLock.getBody().get("message"));
+
+        // Timeout del SELECT ... FOR UPDATE traducido por Spring
+        ResponseEntity<Map<String, Object>> rowLock = handler.handleBusy(new CannotAcquireLockException("lock wait timeout"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rowLock.getStatusCode());
+        assertEquals("1", rowLock.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -0,0 +1,97 @@
+package com.padel.app.service;
+
+import com.padel.app.config.CacheConfig;
+import com.padel.app.dto.court.CourtDTO;
+import com.padel.app.dto.court.CourtResponseDTO;
+import com.padel.app.model.User;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CourtCatalogCacheTest {
+
+    @Autowired
+    private CourtService courtService;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics stats;
+    private Authentication admin;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.COURTS).clear();
+        cacheManager.getCache(CacheConfig.COURT).clear();
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User joaquin = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        AuthenticatedUser principal = AuthenticatedUser.from(joaquin);
+        admin = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @Test
+    void catalogIsServedFromCacheAfterTheFirstRead() {
+        stats.clear();
+        List<CourtResponseDTO> first = courtService.getAllCourts();
+        courtService.getCourtById(1L);
+        assertEquals(2, stats.getPrepareStatementCount());
+
+        stats.clear();
+        assertEquals(first, courtService.getAllCourts());
+        courtService.getCourtById(1L);
+        assertEquals(0, stats.getPrepareStatementCount());
+
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", CacheConfig.COURTS).tag("result", "hit")
+                .functionCounter().count() >= 1);
+    }
+
+    @Test
+    void writesInvalidateTheCatalog() {
+        CourtResponseDTO original = courtService.getCourtById(1L);
+        courtService.getAllCourts();
+
+        courtService.updateCourtPartialIfAllowed(1L, Map.of("price", "1999.00"), admin);
+        try {
+            assertEquals(0, new BigDecimal("1999.00").compareTo(courtService.getCourtById(1L).price()));
+            assertTrue(courtService.getAllCourts().stream()
+                    .anyMatch(c -> c.idCourt() == 1L && c.price().compareTo(new BigDecimal("1999.00")) == 0));
+
+            CourtResponseDTO created = courtService.createCourt(
+                    new CourtDTO("Nueva", "Calle 3", null, null, BigDecimal.TEN), admin);
+            assertTrue(courtService.getAllCourts().stream().anyMatch(c -> c.idCourt().equals(created.idCourt())));
+
+            courtService.deleteCourtIfAllowed(created.idCourt(), admin);
+            assertTrue(courtService.getAllCourts().stream().noneMatch(c -> c.idCourt().equals(created.idCourt())));
+            assertTrue(courtRepository.findById(created.idCourt()).isEmpty());
+        } finally {
+            courtService.updateCourtPartialIfAllowed(1L, Map.of("price", original.price()), admin);
+        }
+    }
+}
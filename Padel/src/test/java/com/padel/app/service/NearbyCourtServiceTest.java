@@ -0,0 +1,141 @@
+package com.padel.app.service;
+
+import com.padel.app.dto.court.CourtDTO;
+import com.padel.app.dto.court.CourtResponseDTO;
+import com.padel.app.dto.court.NearbyCourtDTO;
+import com.padel.app.model.Booking;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.CourtRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class NearbyCourtServiceTest {
+
+    // Punto de búsqueda lejos de las canchas de los datos iniciales
+    private static final double LAT = 45.0;
+    private static final double LNG = 7.0;
+
+    @Autowired
+    private NearbyCourtService nearbyCourtService;
+    @Autowired
+    private CourtService courtService;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Authentication admin;
+    private final List<Long> courts = new ArrayList<>();
+    private final List<Long> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        User joaquin = userRepository.findByEmail("joaquin@test.local").orElseThrow();
+        AuthenticatedUser principal = AuthenticatedUser.from(joaquin);
+        admin = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+        // ~1 km, ~3 km y ~8 km al norte, más una cancha sin coordenadas
+        create("Cerca", LAT + 0.009, LNG);
+        create("Media", LAT + 0.027, LNG);
+        create("Lejos", LAT + 0.072, LNG);
+        create("Sin ubicación", null, null);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookings.forEach(id -> {
+            bookingRepository.deleteById(id);
+            bookingIntervalIndex.untrack(id);
+        });
+        courts.forEach(id -> courtService.deleteCourtIfAllowed(id, admin));
+    }
+
+    @Test
+    void findsCourtsWithinRadiusOrderedByDistance() {
+        List<NearbyCourtDTO> nearby = nearbyCourtService.findNearby(LAT, LNG, 5, 10, null, null);
+
+        assertEquals(List.of("Cerca", "Media"), names(nearby));
+        assertEquals(1.0, nearby.get(0).distanceKm(), 0.05);
+        assertEquals(1, nearbyCourtService.findNearby(LAT, LNG, 10, 1, null, null).size());
+    }
+
+    @Test
+    void indexIsRefreshedOnCourtWrites() {
+        assertEquals(2, nearbyCourtService.findNearby(LAT, LNG, 5, 10, null, null).size());
+
+        Long moved = courts.get(2);
+        courtService.updateCourtPartialIfAllowed(moved, Map.of("lat", LAT + 0.0045), admin);
+        create("Nueva", LAT - 0.018, LNG);
+
+        assertEquals(List.of("Lejos", "Cerca", "Nueva", "Media"),
+                names(nearbyCourtService.findNearby(LAT, LNG, 5, 10, null, null)));
+    }
+
+    @Test
+    void combinesWithAvailabilityWindow() {
+        User maxi = userRepository.findByEmail("maxi@test.local").orElseThrow();
+        LocalDateTime future = LocalDateTime.now().plusDays(20).withHour(18).withMinute(0).withSecond(0).withNano(0);
+        LocalDateTime past = LocalDateTime.of(2020, 6, 1, 18, 0);
+        for (LocalDateTime start : List.of(future, past)) {
+            Booking booking = bookingRepository.save(new Booking(courtRepository.getReferenceById(courts.get(0)), maxi,
+                    start, start.plusHours(1)));
+            bookingIntervalIndex.track(booking);
+            bookings.add(booking.getIdBooking());
+        }
+
+        // Ventana futura (índice en memoria) y pasada (consulta a la base) excluyen la cancha ocupada
+        assertEquals(List.of("Media"), names(nearbyCourtService.findNearby(LAT, LNG, 5, 10, future, future.plusHours(1))));
+        assertEquals(List.of("Media"), names(nearbyCourtService.findNearby(LAT, LNG, 5, 10, past, past.plusHours(1))));
+        assertEquals(List.of("Cerca", "Media"),
+                names(nearbyCourtService.findNearby(LAT, LNG, 5, 10, future.plusHours(1), future.plusHours(2))));
+    }
+
+    @Test
+    void gridWrapsAroundTheAntimeridian() {
+        CourtResponseDTO east = new CourtResponseDTO(1L, "Este", "", 0.0, 179.99, BigDecimal.ONE, 1L, "x");
+        NearbyCourtService.Grid grid = new NearbyCourtService.Grid(List.of(east), 0.05);
+
+        List<NearbyCourtDTO> found = grid.search(0.0, -179.99, 5);
+        assertEquals(1, found.size());
+        assertTrue(found.get(0).distanceKm() < 3);
+    }
+
+    @Test
+    void rejectsUnboundedSearches() {
+        assertThrows(IllegalArgumentException.class,
+                () -> nearbyCourtService.findNearby(LAT, LNG, 500, 10, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> nearbyCourtService.findNearby(LAT, LNG, 5, 1000, null, null));
+    }
+
+    private void create(String name, Double lat, Double lng) {
+        courts.add(courtService.createCourt(new CourtDTO(name, "Calle", lat, lng, BigDecimal.TEN), admin).idCourt());
+    }
+
+    private static List<String> names(List<NearbyCourtDTO> nearby) {
+        return nearby.stream().map(n -> n.court().nameCourt()).toList();
+    }
+}
@@ -0,0 +1,168 @@
+package com.padel.app.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.padel.app.dto.booking.BookingDTO;
+import com.padel.app.dto.booking.BookingResponseDTO;
+import com.padel.app.model.Notification;
+import com.padel.app.model.User;
+import com.padel.app.repository.BookingRepository;
+import com.padel.app.repository.NotificationRepository;
+import com.padel.app.repository.UserRepository;
+import com.padel.app.security.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest(properties = "padel.notifications.enabled=true")
+class NotificationDispatcherTest {
+
+    // Servidor SMTP en proceso en el puerto configurado en application.properties de test (3025)
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Long> bookings = new ArrayList<>();
+    private final List<Long> notifications = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        bookings.forEach(id -> {
+            bookingRepository.deleteById(id);
+            bookingIntervalIndex.untrack(id);
+        });
+        notificationRepository.deleteAllByIdInBatch(notifications);
+    }
+
+    @Test
+    void bookingConfirmationAndCancellationAreMailedInTheBackground() throws Exception {
+        authenticate("maxi@test.local");
+        LocalDateTime start = LocalDateTime.now().plusDays(50).withHour(11).withMinute(0).withSecond(0).withNano(0);
+
+        BookingResponseDTO created = bookingService.createBooking(new BookingDTO(1L, start, start.plusHours(1)));
+        bookings.add(created.idBooking());
+        bookingService.cancelBooking(created.idBooking());
+
+        // Otros tests también reservan como maxi: solo cuentan las notificaciones de esta reserva.
+        // Las filas se escriben en la misma transacción que la reserva y la cancelación
+        notificationRepository.findAll().stream()
+                .filter(n -> n.getBody().contains("#" + created.idBooking() + " "))
+                .forEach(n -> notifications.add(n.getIdNotification()));
+        assertEquals(2, notifications.size());
+
+        // SENT se confirma recién cuando el envío terminó: se espera eso, no la llegada del email
+        await(() -> notificationRepository.findAllById(notifications).stream()
+                .allMatch(n -> n.getStatus() == Notification.Status.SENT));
+        notificationRepository.findAllById(notifications).forEach(n -> assertNotNull(n.getSentAt()));
+
+        List<String> subjects = subjectsAbout(created.idBooking());
+        assertTrue(subjects.stream().anyMatch(s -> s.startsWith("Reserva confirmada")), subjects.toString());
+        assertTrue(subjects.stream().anyMatch(s -> s.startsWith("Reserva cancelada")), subjects.toString());
+        assertNotNull(meterRegistry.find("padel.notifications.pending").gauge());
+    }
+
+    @Test
+    void failedSendsAreRetriedWithBackoff() throws Exception {
+        greenMail.stop();
+        Notification notification = notificationRepository.save(new Notification(
+                Notification.Type.BOOKING_CONFIRMED, "reintento@test.local", "Reintento", "Cuerpo"));
+        notifications.add(notification.getIdNotification());
+
+        await(() -> reload(notification).getLastError() != null);
+        Notification failedOnce = reload(notification);
+        assertEquals(Notification.Status.PENDING, failedOnce.getStatus());
+        assertTrue(failedOnce.getNextAttemptAt().isAfter(failedOnce.getCreatedAt()));
+
+        greenMail.start();
+        await(() -> reload(notification).getStatus() == Notification.Status.SENT);
+        assertTrue(reload(notification).getAttempts() >= 2);
+        assertEquals(1, subjectsTo("reintento@test.local").size());
+    }
+
+    @Test
+    void invalidRecipientsFailWithoutRetrying() throws Exception {
+        Notification notification = notificationRepository.save(new Notification(
+                Notification.Type.BOOKING_CONFIRMED, "no es un email", "Inválido", "Cuerpo"));
+        notifications.add(notification.getIdNotification());
+
+        await(() -> reload(notification).getStatus() == Notification.Status.FAILED);
+        assertEquals(1, reload(notification).getAttempts());
+    }
+
+    private Notification reload(Notification notification) {
+        return notificationRepository.findById(notification.getIdNotification()).orElseThrow();
+    }
+
+    private List<String> subjectsTo(String recipient) throws Exception {
+        List<String> subjects = new ArrayList<>();
+        for (MimeMessage message : greenMail.getReceivedMessages()) {
+            if (Arrays.stream(message.getAllRecipients()).anyMatch(a -> a.toString().equals(recipient))) {
+                subjects.add(message.getSubject());
+            }
+        }
+        return subjects;
+    }
+
+    private List<String> subjectsAbout(Long bookingId) throws Exception {
+        List<String> subjects = new ArrayList<>();
+        for (MimeMessage message : greenMail.getReceivedMessages()) {
+            if (GreenMailUtil.getBody(message).contains("#" + bookingId + " ")) {
+                subjects.add(message.getSubject());
+            }
+        }
+        return subjects;
+    }
+
+    private static void await(Check condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.ok()) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        fail("La condición no se cumplió a tiempo");
+    }
+
+    private void authenticate(String email) {
+        User user = userRepository.findByEmail(email).orElseThrow();
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean ok() throws Exception;
+    }
+}
@@ -0,0 +1,20 @@
+-- seed_data.sql: datos para la prueba de carga (se ejecuta sobre la base ya migrada)
+-- Contraseña de todos los usuarios: loadtest123
+
+INSERT INTO users (email, password, name_user, role, points)
+VALUES
+  ('club@loadtest.local', '$2a$10$d3CLSJgC41P1Xu1VkrQ1uey9u/IqkdlDP.84K7cHFeN7Zs06EkhkW', 'Club Carga', 'OWNER', 0);
+
+-- player1@loadtest.local ... player500@loadtest.local
+INSERT INTO users (email, password, name_user, role, points)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 500)
+SELECT CONCAT('player', n, '@loadtest.local'),
+       '$2a$10$d3CLSJgC41P1Xu1VkrQ1uey9u/IqkdlDP.84K7cHFeN7Zs06EkhkW',
+       CONCAT('Jugador ', n), 'USER', 0
+FROM seq;
+
+-- 10 canchas del mismo club, como cuando abre los turnos de la semana siguiente
+INSERT INTO courts (id_owner, name_court, direction, lat, lng, price)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 10)
+SELECT u.id_user, CONCAT('Club Carga - Cancha ', n), 'Av. Carga 100', -34.6, -58.4, 1500.00
+FROM seq JOIN users u ON u.email = 'club@loadtest.local';